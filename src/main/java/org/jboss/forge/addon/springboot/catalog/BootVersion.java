@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Spring Boot version such as <tt>1.5.4.RELEASE</tt>, ordered like Spring Initializr does: milestones before release
+ * candidates, before snapshots, before releases. A missing qualifier stands for a release.
+ */
+public final class BootVersion implements Comparable<BootVersion>
+{
+   private static final Pattern VERSION = Pattern
+            .compile("^(\\d+)\\.(\\d+|x)(?:\\.(\\d+|x))?(?:[.-]([^0-9]+)(\\d*))?$");
+
+   private static final String[] QUALIFIERS = { "M", "RC", "BUILD-SNAPSHOT", "RELEASE" };
+
+   private final int major;
+   private final int minor;
+   private final int patch;
+   private final int qualifier;
+   private final int qualifierVersion;
+   private final String text;
+
+   private BootVersion(int major, int minor, int patch, int qualifier, int qualifierVersion, String text)
+   {
+      this.major = major;
+      this.minor = minor;
+      this.patch = patch;
+      this.qualifier = qualifier;
+      this.qualifierVersion = qualifierVersion;
+      this.text = text;
+   }
+
+   /**
+    * Parses the given version.
+    *
+    * @throws IllegalArgumentException if it isn't a Spring Boot version
+    */
+   public static BootVersion parse(String text)
+   {
+      final Matcher matcher = VERSION.matcher(text.trim());
+      if (!matcher.matches())
+      {
+         throw new IllegalArgumentException("Invalid Spring Boot version: " + text);
+      }
+      final int major = Integer.parseInt(matcher.group(1));
+      final int minor = number(matcher.group(2));
+      final int patch = matcher.group(3) != null ? number(matcher.group(3)) : 0;
+      int qualifier = QUALIFIERS.length - 1;
+      int qualifierVersion = 0;
+      if (matcher.group(4) != null)
+      {
+         qualifier = qualifier(matcher.group(4));
+         qualifierVersion = matcher.group(5).isEmpty() ? 0 : Integer.parseInt(matcher.group(5));
+      }
+      return new BootVersion(major, minor, patch, qualifier, qualifierVersion, text.trim());
+   }
+
+   private static int number(String value)
+   {
+      // 1.5.x is the highest 1.5 version
+      return "x".equals(value) ? Integer.MAX_VALUE : Integer.parseInt(value);
+   }
+
+   private static int qualifier(String value)
+   {
+      for (int i = 0; i < QUALIFIERS.length; i++)
+      {
+         if (QUALIFIERS[i].equalsIgnoreCase(value))
+         {
+            return i;
+         }
+      }
+      // SNAPSHOT, Final, GA...
+      return value.toUpperCase().contains("SNAPSHOT") ? 2 : QUALIFIERS.length - 1;
+   }
+
+   @Override
+   public int compareTo(BootVersion other)
+   {
+      int result = Integer.compare(major, other.major);
+      if (result == 0)
+      {
+         result = Integer.compare(minor, other.minor);
+      }
+      if (result == 0)
+      {
+         result = Integer.compare(patch, other.patch);
+      }
+      if (result == 0)
+      {
+         result = Integer.compare(qualifier, other.qualifier);
+      }
+      if (result == 0)
+      {
+         result = Integer.compare(qualifierVersion, other.qualifierVersion);
+      }
+      return result;
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      return obj instanceof BootVersion && compareTo((BootVersion) obj) == 0;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return (((major * 31 + minor) * 31 + patch) * 31 + qualifier) * 31 + qualifierVersion;
+   }
+
+   @Override
+   public String toString()
+   {
+      return text;
+   }
+}
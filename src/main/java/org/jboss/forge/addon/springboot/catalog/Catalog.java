@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.addon.ui.util.Commands;
+
+/**
+ * The dependencies of a catalog along with the indexes used by the wizards: by id, by shell label, by prefix of either,
+ * by Spring Boot version and by trigram, so that converting, completing, filtering and searching values doesn't depend
+ * on the size of the catalog. Built once per catalog and immutable afterwards, so that concurrent wizards can share it
+ * without locking; a newer catalog replaces it as a whole.
+ */
+public class Catalog
+{
+   /**
+    * Timestamp of the catalogs that are never revalidated, such as the bundled one
+    */
+   public static final long NEVER_STALE = Long.MAX_VALUE;
+
+   private final List<SpringBootDependencyDTO> dependencies;
+   private final Map<String, SpringBootDependencyDTO> byId;
+   private final Map<SpringBootDependencyDTO, String> labels;
+   private final Map<String, SpringBootDependencyDTO> byLabel;
+   private final PrefixTrie<SpringBootDependencyDTO> prefixes = new PrefixTrie<>();
+   private final VersionRangeIndex versions;
+   private final long timestamp;
+   private volatile SearchIndex searchIndex;
+
+   public Catalog(List<SpringBootDependencyDTO> dependencies)
+   {
+      this(dependencies, NEVER_STALE);
+   }
+
+   /**
+    * Creates a catalog of the given dependencies, fetched at the given time.
+    */
+   public Catalog(List<SpringBootDependencyDTO> dependencies, long timestamp)
+   {
+      this.timestamp = timestamp;
+      this.dependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+      final int capacity = dependencies.size() * 4 / 3 + 1;
+      final Map<String, SpringBootDependencyDTO> ids = new HashMap<>(capacity);
+      final Map<SpringBootDependencyDTO, String> shellLabels = new IdentityHashMap<>(capacity);
+      final Map<String, SpringBootDependencyDTO> idsByLabel = new HashMap<>(capacity);
+      for (SpringBootDependencyDTO dto : this.dependencies)
+      {
+         final String label = StringPool.SHARED.intern(Commands.shellifyCommandName(dto.getName()));
+         ids.putIfAbsent(dto.getId(), dto);
+         shellLabels.put(dto, label);
+         idsByLabel.putIfAbsent(label, dto);
+         prefixes.put(dto.getId(), dto);
+         prefixes.put(label, dto);
+      }
+      this.byId = ids;
+      this.labels = shellLabels;
+      this.byLabel = idsByLabel;
+      this.versions = new VersionRangeIndex(this.dependencies);
+   }
+
+   public List<SpringBootDependencyDTO> getDependencies()
+   {
+      return dependencies;
+   }
+
+   /**
+    * Returns the dependencies available for the given Spring Boot version, all of them if the version is <tt>null</tt>
+    * or can't be parsed.
+    */
+   public List<SpringBootDependencyDTO> getDependencies(String bootVersion)
+   {
+      if (bootVersion == null)
+      {
+         return dependencies;
+      }
+      try
+      {
+         return versions.get(BootVersion.parse(bootVersion));
+      }
+      catch (IllegalArgumentException e)
+      {
+         return dependencies;
+      }
+   }
+
+   /**
+    * Returns whether the given dependency is available for the given Spring Boot version.
+    */
+   public boolean isAvailable(SpringBootDependencyDTO dto, String bootVersion)
+   {
+      if (bootVersion == null || dto.getVersionRange() == null)
+      {
+         return true;
+      }
+      try
+      {
+         return VersionRange.parse(dto.getVersionRange()).contains(BootVersion.parse(bootVersion));
+      }
+      catch (IllegalArgumentException e)
+      {
+         return true;
+      }
+   }
+
+   /**
+    * Returns the time this catalog was fetched at, or {@link #NEVER_STALE}.
+    */
+   public long getTimestamp()
+   {
+      return timestamp;
+   }
+
+   /**
+    * Returns an estimate of the heap retained by this catalog in bytes: its dependencies, their strings and its
+    * indexes. The strings shared with other catalogs are counted in each of them.
+    */
+   public long getFootprint()
+   {
+      final Map<String, Boolean> strings = new IdentityHashMap<>();
+      long size = Footprint.object(7, 8) + Footprint.object(2, 0) + Footprint.arrayList(dependencies.size());
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         size += Footprint.object(11, 1);
+         for (String value : new String[] { dto.getGroup(), dto.getId(), dto.getName(), dto.getDescription(),
+                  dto.getGroupId(), dto.getArtifactId(), dto.getVersion(), dto.getVersionRange(), dto.getScope(),
+                  dto.getBom() })
+         {
+            if (value != null)
+            {
+               strings.put(value, Boolean.TRUE);
+            }
+         }
+         if (!dto.getFacets().isEmpty())
+         {
+            size += Footprint.object(2, 0) + Footprint.arrayList(dto.getFacets().size());
+            dto.getFacets().forEach(facet -> strings.put(facet, Boolean.TRUE));
+         }
+      }
+      labels.values().forEach(label -> strings.put(label, Boolean.TRUE));
+      for (String value : strings.keySet())
+      {
+         size += Footprint.string(value);
+      }
+      size += Footprint.hashMap(byId.size()) + Footprint.hashMap(byLabel.size())
+               + Footprint.array(labels.size() * 4, Footprint.REFERENCE) + prefixes.getFootprint()
+               + versions.getFootprint();
+      final SearchIndex index = searchIndex;
+      if (index != null)
+      {
+         size += index.getFootprint();
+      }
+      return size;
+   }
+
+   public int size()
+   {
+      return dependencies.size();
+   }
+
+   /**
+    * Returns the dependency with the given id, or <tt>null</tt>.
+    */
+   public SpringBootDependencyDTO get(String id)
+   {
+      return byId.get(id);
+   }
+
+   /**
+    * Returns the tab friendly label of the given dependency of this catalog.
+    */
+   public String getShellLabel(SpringBootDependencyDTO dto)
+   {
+      final String label = labels.get(dto);
+      return label != null ? label : Commands.shellifyCommandName(dto.getName());
+   }
+
+   /**
+    * Returns the dependency having exactly the given id or shell label, or <tt>null</tt>. Prefixes aren't accepted: a
+    * prefix that is unique today could select another dependency once the catalog grows, see
+    * {@link #complete(String, int)} instead.
+    */
+   public SpringBootDependencyDTO resolve(String value)
+   {
+      final SpringBootDependencyDTO dto = byId.get(value);
+      return dto != null ? dto : byLabel.get(value);
+   }
+
+   /**
+    * Returns the dependencies whose id or shell label start with the given prefix, ignoring case, to complete what was
+    * typed so far.
+    */
+   public List<SpringBootDependencyDTO> complete(String prefix, int limit)
+   {
+      return prefixes.find(prefix, limit);
+   }
+
+   /**
+    * Returns the dependencies best matching the given words by id, name, group or description, tolerating typos and
+    * partial words, at most limit of them. The search index is built on the first search.
+    */
+   public List<SpringBootDependencyDTO> search(String query, int limit)
+   {
+      SearchIndex index = searchIndex;
+      if (index == null)
+      {
+         synchronized (this)
+         {
+            index = searchIndex;
+            if (index == null)
+            {
+               index = new SearchIndex(dependencies);
+               searchIndex = index;
+            }
+         }
+      }
+      return index.search(query, limit);
+   }
+}
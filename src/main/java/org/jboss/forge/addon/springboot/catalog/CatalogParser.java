@@ -0,0 +1,492 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+
+/**
+ * Reads the dependencies of a catalog, either the JSON metadata of the starter service or the YAML configuration of
+ * Spring Initializr, straight into {@link SpringBootDependencyDTO}s from the parser events, without building a tree of
+ * the document first. Unknown keys are skipped, and items inherit the versionRange and bom of their group when they
+ * don't declare them.
+ */
+public class CatalogParser
+{
+   private CatalogParser()
+   {
+   }
+
+   /**
+    * Reads the dependencies from the {@code dependencies/values} groups of the starter service metadata.
+    */
+   public static List<SpringBootDependencyDTO> parseJson(Reader reader) throws IOException
+   {
+      final List<SpringBootDependencyDTO> result = new ArrayList<>();
+      try (JsonParser parser = Json.createParser(reader))
+      {
+         expect(parser, JsonParser.Event.START_OBJECT);
+         while (parser.next() == JsonParser.Event.KEY_NAME)
+         {
+            if ("dependencies".equals(parser.getString()))
+            {
+               expect(parser, JsonParser.Event.START_OBJECT);
+               while (parser.next() == JsonParser.Event.KEY_NAME)
+               {
+                  if ("values".equals(parser.getString()))
+                  {
+                     expect(parser, JsonParser.Event.START_ARRAY);
+                     while (parser.next() == JsonParser.Event.START_OBJECT)
+                     {
+                        readJsonGroup(parser, result);
+                     }
+                  }
+                  else
+                  {
+                     skip(parser, parser.next());
+                  }
+               }
+            }
+            else
+            {
+               skip(parser, parser.next());
+            }
+         }
+      }
+      catch (JsonException e)
+      {
+         throw new IOException("Invalid catalog: " + e.getMessage(), e);
+      }
+      return result;
+   }
+
+   public static List<SpringBootDependencyDTO> parseJson(InputStream in) throws IOException
+   {
+      return parseJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Reads the dependencies from the {@code initializr/dependencies} groups of a Spring Initializr configuration.
+    */
+   public static List<SpringBootDependencyDTO> parseYaml(Reader reader) throws IOException
+   {
+      final List<SpringBootDependencyDTO> result = new ArrayList<>();
+      final YamlCursor cursor = new YamlCursor(new Yaml().parse(reader).iterator());
+      try
+      {
+         // stream and document start
+         Event event = cursor.next();
+         while (!(event instanceof MappingStartEvent))
+         {
+            event = cursor.next();
+         }
+         String key;
+         while ((key = cursor.nextKey()) != null)
+         {
+            event = cursor.next();
+            if ("initializr".equals(key) && event instanceof MappingStartEvent)
+            {
+               while ((key = cursor.nextKey()) != null)
+               {
+                  event = cursor.next();
+                  if ("dependencies".equals(key) && event instanceof SequenceStartEvent)
+                  {
+                     while (cursor.next() instanceof MappingStartEvent)
+                     {
+                        readYamlGroup(cursor, result);
+                     }
+                  }
+                  else
+                  {
+                     cursor.skip(event);
+                  }
+               }
+            }
+            else
+            {
+               cursor.skip(event);
+            }
+         }
+      }
+      catch (RuntimeException e)
+      {
+         throw new IOException("Invalid catalog: " + e.getMessage(), e);
+      }
+      finally
+      {
+         reader.close();
+      }
+      return result;
+   }
+
+   public static List<SpringBootDependencyDTO> parseYaml(InputStream in) throws IOException
+   {
+      return parseYaml(new InputStreamReader(in, StandardCharsets.UTF_8));
+   }
+
+   private static void readJsonGroup(JsonParser parser, List<SpringBootDependencyDTO> result)
+   {
+      final int first = result.size();
+      String name = null;
+      String versionRange = null;
+      String bom = null;
+      JsonParser.Event event;
+      while ((event = parser.next()) == JsonParser.Event.KEY_NAME)
+      {
+         final String key = parser.getString();
+         event = parser.next();
+         if ("values".equals(key) || "content".equals(key))
+         {
+            while (parser.next() == JsonParser.Event.START_OBJECT)
+            {
+               result.add(readJsonItem(parser));
+            }
+         }
+         else if ("name".equals(key) && event == JsonParser.Event.VALUE_STRING)
+         {
+            name = parser.getString();
+         }
+         else if ("versionRange".equals(key) && event == JsonParser.Event.VALUE_STRING)
+         {
+            versionRange = parser.getString();
+         }
+         else if ("bom".equals(key) && event == JsonParser.Event.VALUE_STRING)
+         {
+            bom = parser.getString();
+         }
+         else
+         {
+            skip(parser, event);
+         }
+      }
+      endGroup(result, first, name, versionRange, bom);
+   }
+
+   private static SpringBootDependencyDTO readJsonItem(JsonParser parser)
+   {
+      final SpringBootDependencyDTO dto = new SpringBootDependencyDTO();
+      while (parser.next() == JsonParser.Event.KEY_NAME)
+      {
+         final String key = parser.getString();
+         final JsonParser.Event event = parser.next();
+         switch (event)
+         {
+         case VALUE_STRING:
+         case VALUE_NUMBER:
+            bind(dto, key, parser.getString());
+            break;
+         case VALUE_TRUE:
+         case VALUE_FALSE:
+            bind(dto, key, String.valueOf(event == JsonParser.Event.VALUE_TRUE));
+            break;
+         default:
+            skip(parser, event);
+         }
+      }
+      return dto;
+   }
+
+   private static void readYamlGroup(YamlCursor cursor, List<SpringBootDependencyDTO> result)
+   {
+      final int first = result.size();
+      String name = null;
+      String versionRange = null;
+      String bom = null;
+      String key;
+      while ((key = cursor.nextKey()) != null)
+      {
+         if ("content".equals(key) || "values".equals(key))
+         {
+            final Event event = cursor.next();
+            if (event instanceof SequenceStartEvent)
+            {
+               while (cursor.next() instanceof MappingStartEvent)
+               {
+                  result.add(readYamlItem(cursor));
+               }
+            }
+            else
+            {
+               cursor.skip(event);
+            }
+         }
+         else if ("name".equals(key))
+         {
+            name = cursor.nextScalar();
+         }
+         else if ("versionRange".equals(key))
+         {
+            versionRange = cursor.nextScalar();
+         }
+         else if ("bom".equals(key))
+         {
+            bom = cursor.nextScalar();
+         }
+         else
+         {
+            cursor.skipValue();
+         }
+      }
+      endGroup(result, first, name, versionRange, bom);
+   }
+
+   private static SpringBootDependencyDTO readYamlItem(YamlCursor cursor)
+   {
+      final SpringBootDependencyDTO dto = new SpringBootDependencyDTO();
+      String key;
+      while ((key = cursor.nextKey()) != null)
+      {
+         if ("facets".equals(key))
+         {
+            dto.setFacets(intern(cursor.nextScalars()));
+            continue;
+         }
+         final String value = cursor.nextScalar();
+         if (value != null)
+         {
+            bind(dto, key, value);
+         }
+      }
+      return dto;
+   }
+
+   /**
+    * Sets the group of the items read since first, the group name possibly coming after its items.
+    */
+   private static void endGroup(List<SpringBootDependencyDTO> result, int first, String name, String versionRange,
+            String bom)
+   {
+      final String group = StringPool.SHARED.intern(name);
+      for (SpringBootDependencyDTO dto : result.subList(first, result.size()))
+      {
+         dto.setGroup(group);
+         if (dto.getVersionRange() == null)
+         {
+            dto.setVersionRange(StringPool.SHARED.intern(versionRange));
+         }
+         if (dto.getBom() == null)
+         {
+            dto.setBom(StringPool.SHARED.intern(bom));
+         }
+      }
+   }
+
+   /**
+    * Binds the given value to the DTO, sharing it with the other catalogs.
+    */
+   private static void bind(SpringBootDependencyDTO dto, String key, String parsed)
+   {
+      final String value = StringPool.SHARED.intern(parsed);
+      switch (key)
+      {
+      case "id":
+         dto.setId(value);
+         break;
+      case "name":
+         dto.setName(value);
+         break;
+      case "description":
+         dto.setDescription(value);
+         break;
+      case "groupId":
+         dto.setGroupId(value);
+         break;
+      case "artifactId":
+         dto.setArtifactId(value);
+         break;
+      case "version":
+         dto.setVersion(value);
+         break;
+      case "versionRange":
+         dto.setVersionRange(value);
+         break;
+      case "starter":
+         dto.setStarter(Boolean.parseBoolean(value));
+         break;
+      case "scope":
+         dto.setScope(value);
+         break;
+      case "bom":
+         dto.setBom(value);
+         break;
+      default:
+         // not needed by the addon
+      }
+   }
+
+   private static List<String> intern(List<String> values)
+   {
+      if (values.isEmpty())
+      {
+         return Collections.emptyList();
+      }
+      final List<String> interned = new ArrayList<>(values.size());
+      for (String value : values)
+      {
+         interned.add(StringPool.SHARED.intern(value));
+      }
+      return Collections.unmodifiableList(interned);
+   }
+
+   private static void expect(JsonParser parser, JsonParser.Event expected)
+   {
+      final JsonParser.Event event = parser.next();
+      if (event != expected)
+      {
+         throw new JsonException("Expected " + expected + " but got " + event);
+      }
+   }
+
+   /**
+    * Skips the value starting with the given event, including all its children.
+    */
+   private static void skip(JsonParser parser, JsonParser.Event event)
+   {
+      if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY)
+      {
+         int depth = 1;
+         while (depth > 0)
+         {
+            event = parser.next();
+            if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY)
+            {
+               depth++;
+            }
+            else if (event == JsonParser.Event.END_OBJECT || event == JsonParser.Event.END_ARRAY)
+            {
+               depth--;
+            }
+         }
+      }
+   }
+
+   /**
+    * Walks the events of a YAML document.
+    */
+   private static class YamlCursor
+   {
+      private final Iterator<Event> events;
+
+      YamlCursor(Iterator<Event> events)
+      {
+         this.events = events;
+      }
+
+      Event next()
+      {
+         if (!events.hasNext())
+         {
+            throw new IllegalStateException("Unexpected end of document");
+         }
+         return events.next();
+      }
+
+      /**
+       * Returns the next key of the current mapping, or <tt>null</tt> at its end.
+       */
+      String nextKey()
+      {
+         final Event event = next();
+         return event instanceof ScalarEvent ? ((ScalarEvent) event).getValue() : null;
+      }
+
+      /**
+       * Returns the next value if it is a scalar, skipping it and returning <tt>null</tt> otherwise.
+       */
+      String nextScalar()
+      {
+         final Event event = next();
+         if (event instanceof ScalarEvent)
+         {
+            return ((ScalarEvent) event).getValue();
+         }
+         skip(event);
+         return null;
+      }
+
+      /**
+       * Returns the scalars of the next value, which is either a sequence or a single scalar.
+       */
+      List<String> nextScalars()
+      {
+         final Event event = next();
+         if (event instanceof ScalarEvent)
+         {
+            return Collections.singletonList(((ScalarEvent) event).getValue());
+         }
+         final List<String> values = new ArrayList<>();
+         if (event instanceof SequenceStartEvent)
+         {
+            Event child;
+            while (!((child = next()) instanceof CollectionEndEvent))
+            {
+               if (child instanceof ScalarEvent)
+               {
+                  values.add(((ScalarEvent) child).getValue());
+               }
+               else
+               {
+                  skip(child);
+               }
+            }
+         }
+         else
+         {
+            skip(event);
+         }
+         return values;
+      }
+
+      void skipValue()
+      {
+         skip(next());
+      }
+
+      /**
+       * Skips the value starting with the given event, including all its children.
+       */
+      void skip(Event event)
+      {
+         if (event instanceof CollectionStartEvent)
+         {
+            int depth = 1;
+            while (depth > 0)
+            {
+               final Event child = next();
+               if (child instanceof CollectionStartEvent)
+               {
+                  depth++;
+               }
+               else if (child instanceof CollectionEndEvent)
+               {
+                  depth--;
+               }
+            }
+         }
+      }
+   }
+}
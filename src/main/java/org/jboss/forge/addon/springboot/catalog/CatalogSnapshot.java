@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact binary form of a catalog, written at build time from the bundled YAML catalog so that it can be loaded at
+ * runtime without any YAML parsing. All the strings are stored once in a table, the dependencies referring to them by
+ * index.
+ */
+public class CatalogSnapshot
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+   /**
+    * Classpath location of the snapshot of the bundled catalog
+    */
+   public static final String SNAPSHOT = "/spring-boot-application.bin";
+
+   private static final int MAGIC = 0x53424353; // SBCS
+   private static final int FORMAT_VERSION = 2;
+   private static final int NULL = 0xFFFF;
+
+   private CatalogSnapshot()
+   {
+   }
+
+   /**
+    * Compiles the YAML catalog given as first argument into the snapshot file given as second argument.
+    */
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length != 2)
+      {
+         throw new IllegalArgumentException("Usage: CatalogSnapshot <catalog.yaml> <snapshot.bin>");
+      }
+      final List<SpringBootDependencyDTO> dependencies;
+      try (InputStream in = new FileInputStream(args[0]))
+      {
+         dependencies = CatalogParser.parseYaml(in);
+      }
+      final File target = new File(args[1]);
+      target.getParentFile().mkdirs();
+      try (OutputStream out = new FileOutputStream(target))
+      {
+         write(dependencies, out);
+      }
+      LOG.info("Wrote {} dependencies to {} ({} bytes)", dependencies.size(), target, target.length());
+   }
+
+   public static void write(List<SpringBootDependencyDTO> dependencies, OutputStream out) throws IOException
+   {
+      final Map<String, Integer> strings = new LinkedHashMap<>();
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         for (String value : values(dto))
+         {
+            index(strings, value);
+         }
+         for (String facet : dto.getFacets())
+         {
+            index(strings, facet);
+         }
+      }
+
+      final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+      data.writeInt(MAGIC);
+      data.writeShort(FORMAT_VERSION);
+      data.writeShort(strings.size());
+      for (String value : strings.keySet())
+      {
+         data.writeUTF(value);
+      }
+      data.writeShort(dependencies.size());
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         for (String value : values(dto))
+         {
+            data.writeShort(value == null ? NULL : strings.get(value));
+         }
+         data.writeBoolean(dto.isStarter());
+         data.writeByte(dto.getFacets().size());
+         for (String facet : dto.getFacets())
+         {
+            data.writeShort(strings.get(facet));
+         }
+      }
+      data.flush();
+   }
+
+   public static List<SpringBootDependencyDTO> read(InputStream in) throws IOException
+   {
+      final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+      if (data.readInt() != MAGIC || data.readUnsignedShort() != FORMAT_VERSION)
+      {
+         throw new IOException("Not a catalog snapshot, or an unsupported version of it");
+      }
+      final String[] strings = new String[data.readUnsignedShort()];
+      for (int i = 0; i < strings.length; i++)
+      {
+         strings[i] = StringPool.SHARED.intern(data.readUTF());
+      }
+      final int count = data.readUnsignedShort();
+      final List<SpringBootDependencyDTO> dependencies = new ArrayList<>(count);
+      for (int i = 0; i < count; i++)
+      {
+         final SpringBootDependencyDTO dto = new SpringBootDependencyDTO();
+         dto.setGroup(string(strings, data));
+         dto.setId(string(strings, data));
+         dto.setName(string(strings, data));
+         dto.setDescription(string(strings, data));
+         dto.setGroupId(string(strings, data));
+         dto.setArtifactId(string(strings, data));
+         dto.setVersion(string(strings, data));
+         dto.setVersionRange(string(strings, data));
+         dto.setScope(string(strings, data));
+         dto.setBom(string(strings, data));
+         dto.setStarter(data.readBoolean());
+         final int facetCount = data.readUnsignedByte();
+         if (facetCount > 0)
+         {
+            final List<String> facets = new ArrayList<>(facetCount);
+            for (int j = 0; j < facetCount; j++)
+            {
+               facets.add(string(strings, data));
+            }
+            dto.setFacets(Collections.unmodifiableList(facets));
+         }
+         dependencies.add(dto);
+      }
+      return dependencies;
+   }
+
+   /**
+    * The string fields of a dependency, in the order they are stored
+    */
+   private static String[] values(SpringBootDependencyDTO dto)
+   {
+      return new String[] { dto.getGroup(), dto.getId(), dto.getName(), dto.getDescription(), dto.getGroupId(),
+               dto.getArtifactId(), dto.getVersion(), dto.getVersionRange(), dto.getScope(), dto.getBom() };
+   }
+
+   private static void index(Map<String, Integer> strings, String value)
+   {
+      if (value != null && !strings.containsKey(value))
+      {
+         if (strings.size() == NULL)
+         {
+            throw new IllegalStateException("Too many distinct strings for a catalog snapshot");
+         }
+         strings.put(value, strings.size());
+      }
+   }
+
+   private static String string(String[] strings, DataInputStream data) throws IOException
+   {
+      final int index = data.readUnsignedShort();
+      return index == NULL ? null : strings[index];
+   }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+/**
+ * Estimates of the heap size of the objects held by a catalog, assuming a 64 bits JVM with compressed references, as
+ * used by default for heaps under 32 GB.
+ */
+final class Footprint
+{
+   static final int HEADER = 12;
+   static final int REFERENCE = 4;
+
+   // a java.util.HashMap.Node, a java.util.TreeMap.Entry
+   static final long HASH_ENTRY = object(3, 4);
+   static final long TREE_ENTRY = object(5, 1);
+
+   private Footprint()
+   {
+   }
+
+   /**
+    * Size of an object with the given number of references and bytes of primitive fields
+    */
+   static long object(int references, int primitiveBytes)
+   {
+      return align(HEADER + references * REFERENCE + primitiveBytes);
+   }
+
+   static long array(int length, int elementBytes)
+   {
+      return align(HEADER + 4 + (long) length * elementBytes);
+   }
+
+   /**
+    * Size of a string along with its characters
+    */
+   static long string(String value)
+   {
+      return object(1, 8) + array(value.length(), 2);
+   }
+
+   /**
+    * Size of a hash map with the given number of entries, not counting the keys and values
+    */
+   static long hashMap(int size)
+   {
+      return object(4, 16) + array(Integer.highestOneBit(Math.max(1, size * 4 / 3)) << 1, REFERENCE)
+               + size * HASH_ENTRY;
+   }
+
+   /**
+    * Size of an array list of the given size, not counting its elements
+    */
+   static long arrayList(int size)
+   {
+      return object(1, 8) + array(size, REFERENCE);
+   }
+
+   private static long align(long size)
+   {
+      return (size + 7) & ~7L;
+   }
+}
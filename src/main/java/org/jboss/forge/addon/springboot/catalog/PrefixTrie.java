@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Case insensitive prefix tree of values, looking up the values whose keys start with a prefix in a time bound by the
+ * length of the prefix and the number of results rather than by the number of keys. Not thread-safe while it is being
+ * filled, read-only afterwards.
+ */
+class PrefixTrie<T>
+{
+   private final Node<T> root = new Node<>();
+
+   void put(String key, T value)
+   {
+      Node<T> node = root;
+      for (char c : key.toLowerCase().toCharArray())
+      {
+         if (node.children == null)
+         {
+            node.children = new TreeMap<>();
+         }
+         node = node.children.computeIfAbsent(c, k -> new Node<>());
+      }
+      if (node.values.isEmpty())
+      {
+         node.values = Collections.singletonList(value);
+      }
+      else if (!node.values.contains(value))
+      {
+         if (node.values.size() == 1)
+         {
+            node.values = new ArrayList<>(node.values);
+         }
+         node.values.add(value);
+      }
+   }
+
+   /**
+    * Returns the distinct values whose keys start with the given prefix, in key order, at most limit of them.
+    */
+   List<T> find(String prefix, int limit)
+   {
+      Node<T> node = root;
+      for (char c : prefix.toLowerCase().toCharArray())
+      {
+         node = node.children != null ? node.children.get(c) : null;
+         if (node == null)
+         {
+            return new ArrayList<>(0);
+         }
+      }
+
+      final Set<T> result = new LinkedHashSet<>();
+      final Deque<Node<T>> stack = new ArrayDeque<>();
+      stack.push(node);
+      while (!stack.isEmpty() && result.size() < limit)
+      {
+         final Node<T> current = stack.pop();
+         for (T value : current.values)
+         {
+            if (result.size() < limit)
+            {
+               result.add(value);
+            }
+         }
+         if (current.children == null)
+         {
+            continue;
+         }
+         // push in reverse so that children are visited in key order
+         final List<Node<T>> children = new ArrayList<>(current.children.values());
+         for (int i = children.size() - 1; i >= 0; i--)
+         {
+            stack.push(children.get(i));
+         }
+      }
+      return new ArrayList<>(result);
+   }
+
+   /**
+    * Returns an estimate of the heap size of the tree, not counting the values.
+    */
+   long getFootprint()
+   {
+      long size = 0;
+      final Deque<Node<T>> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty())
+      {
+         final Node<T> node = stack.pop();
+         size += Footprint.object(2, 0);
+         if (node.values.size() > 1)
+         {
+            size += Footprint.arrayList(node.values.size());
+         }
+         else if (node.values.size() == 1)
+         {
+            size += Footprint.object(1, 0);
+         }
+         if (node.children != null)
+         {
+            // the map, its entries and their boxed keys
+            size += Footprint.object(3, 8) + node.children.size() * (Footprint.TREE_ENTRY + Footprint.object(0, 2));
+            node.children.values().forEach(stack::push);
+         }
+      }
+      return size;
+   }
+
+   /**
+    * A node of the tree, most of them having a single child and no value: the children map and values list are only
+    * allocated when needed.
+    */
+   private static class Node<T>
+   {
+      private Map<Character, Node<T>> children;
+      private List<T> values = Collections.emptyList();
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+
+/**
+ * Trigram index of the id, name, group and description of the dependencies of a catalog, answering fuzzy queries by
+ * counting the trigrams a dependency shares with the query, so that typos and partial words still match. Each posting
+ * packs the index of the dependency with the weight of the best field holding the trigram. Read-only once built.
+ */
+class SearchIndex
+{
+   private static final int ID_WEIGHT = 4;
+   private static final int NAME_WEIGHT = 4;
+   private static final int GROUP_WEIGHT = 2;
+   private static final int DESCRIPTION_WEIGHT = 1;
+   private static final int WEIGHT_BITS = 3;
+   private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+
+   // on top of any trigram score, for the dependencies whose id or name starts with the query
+   private static final int PREFIX_BONUS = 1 << 16;
+
+   private final List<SpringBootDependencyDTO> dependencies;
+   private final Map<String, int[]> postings;
+
+   SearchIndex(List<SpringBootDependencyDTO> dependencies)
+   {
+      this.dependencies = dependencies;
+      final Map<String, Map<Integer, Integer>> building = new HashMap<>();
+      for (int i = 0; i < dependencies.size(); i++)
+      {
+         final SpringBootDependencyDTO dto = dependencies.get(i);
+         add(building, i, dto.getId(), ID_WEIGHT);
+         add(building, i, dto.getName(), NAME_WEIGHT);
+         add(building, i, dto.getGroup(), GROUP_WEIGHT);
+         add(building, i, dto.getDescription(), DESCRIPTION_WEIGHT);
+      }
+      postings = new HashMap<>(building.size() * 4 / 3 + 1);
+      for (Map.Entry<String, Map<Integer, Integer>> entry : building.entrySet())
+      {
+         final int[] posting = new int[entry.getValue().size()];
+         int j = 0;
+         for (Map.Entry<Integer, Integer> doc : entry.getValue().entrySet())
+         {
+            posting[j++] = doc.getKey() << WEIGHT_BITS | doc.getValue();
+         }
+         postings.put(entry.getKey(), posting);
+      }
+   }
+
+   /**
+    * Returns the dependencies sharing at least half of the trigrams of the query, best matches first, at most limit of
+    * them.
+    */
+   List<SpringBootDependencyDTO> search(String query, int limit)
+   {
+      final Set<String> grams = trigrams(query);
+      if (grams.isEmpty() || limit <= 0)
+      {
+         return new ArrayList<>(0);
+      }
+      final int[] scores = new int[dependencies.size()];
+      final int[] hits = new int[dependencies.size()];
+      for (String gram : grams)
+      {
+         final int[] posting = postings.get(gram);
+         if (posting != null)
+         {
+            for (int entry : posting)
+            {
+               scores[entry >>> WEIGHT_BITS] += entry & WEIGHT_MASK;
+               hits[entry >>> WEIGHT_BITS]++;
+            }
+         }
+      }
+
+      final String prefix = normalize(query).trim();
+      final List<Integer> matches = new ArrayList<>();
+      for (int i = 0; i < scores.length; i++)
+      {
+         if (hits[i] * 2 >= grams.size())
+         {
+            if (startsWith(dependencies.get(i).getId(), prefix) || startsWith(dependencies.get(i).getName(), prefix))
+            {
+               scores[i] += PREFIX_BONUS;
+            }
+            matches.add(i);
+         }
+      }
+      // best score first, then catalog order
+      matches.sort((a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : Integer.compare(a, b));
+
+      final List<SpringBootDependencyDTO> result = new ArrayList<>(Math.min(limit, matches.size()));
+      for (int i = 0; i < matches.size() && i < limit; i++)
+      {
+         result.add(dependencies.get(matches.get(i)));
+      }
+      return result;
+   }
+
+   /**
+    * Returns an estimate of the heap size of the index, not counting the dependencies.
+    */
+   long getFootprint()
+   {
+      long size = Footprint.hashMap(postings.size());
+      for (Map.Entry<String, int[]> entry : postings.entrySet())
+      {
+         size += Footprint.string(entry.getKey()) + Footprint.array(entry.getValue().length, 4);
+      }
+      return size;
+   }
+
+   private static void add(Map<String, Map<Integer, Integer>> building, int doc, String text, int weight)
+   {
+      if (text == null)
+      {
+         return;
+      }
+      for (String gram : trigrams(text))
+      {
+         building.computeIfAbsent(gram, k -> new HashMap<>()).merge(doc, weight, Math::max);
+      }
+   }
+
+   /**
+    * The distinct trigrams of the words of the given text, each word being padded with a space on both sides so that
+    * short words and word boundaries count too.
+    */
+   static Set<String> trigrams(String text)
+   {
+      final Set<String> grams = new LinkedHashSet<>();
+      for (String word : normalize(text).split(" "))
+      {
+         if (word.isEmpty())
+         {
+            continue;
+         }
+         final String padded = " " + word + " ";
+         for (int i = 0; i + 3 <= padded.length(); i++)
+         {
+            grams.add(padded.substring(i, i + 3));
+         }
+      }
+      return grams;
+   }
+
+   /**
+    * Lower cases the text and replaces anything but letters and digits by spaces.
+    */
+   private static String normalize(String text)
+   {
+      final char[] chars = text.toLowerCase().toCharArray();
+      for (int i = 0; i < chars.length; i++)
+      {
+         if (!Character.isLetterOrDigit(chars[i]))
+         {
+            chars[i] = ' ';
+         }
+      }
+      return new String(chars);
+   }
+
+   private static boolean startsWith(String value, String prefix)
+   {
+      return value != null && !prefix.isEmpty() && normalize(value).startsWith(prefix);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "SearchIndex[" + dependencies.size() + " dependencies, " + postings.size() + " trigrams, "
+               + postings.values().stream().mapToInt(p -> p.length).sum() + " postings]";
+   }
+}
@@ -0,0 +1,479 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.configuration.Configuration;
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.addon.springboot.utils.IOHelper;
+import org.jboss.forge.addon.springboot.utils.PropertiesFile;
+import org.jboss.forge.addon.springboot.utils.StarterHttpClient;
+import org.jboss.forge.addon.ui.output.UIOutput;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PostStartup;
+import org.jboss.forge.furnace.event.PreShutdown;
+import org.jboss.forge.furnace.util.OperatingSystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the Spring Boot versions and the catalog of dependencies offered when creating Spring Boot projects, shared
+ * by all the commands of this addon.
+ */
+@Singleton
+public class SpringBootCatalogService
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(SpringBootCatalogService.class);
+
+   public static final String STARTER_URL = "https://start.spring.io";
+
+   private static final List<String> DEFAULT_SPRING_BOOT_VERSIONS = new ArrayList<>(5);
+   private static final String LATEST_STABLE_SPRING_BOOT_VERSION = "1.5.4.RELEASE";
+   private static final String RHOAR_SUPPORTED_VERSION = "1.4.1.RELEASE";
+   private static final String LATEST_1_4_SPRING_BOOT_VERSION = "1.4.7.RELEASE";
+   private static final String LATEST_2_0_VERSION = "2.3.3.RELEASE";
+
+   static {
+      Collections.addAll(DEFAULT_SPRING_BOOT_VERSIONS, RHOAR_SUPPORTED_VERSION, LATEST_1_4_SPRING_BOOT_VERSION,
+               LATEST_STABLE_SPRING_BOOT_VERSION, LATEST_2_0_VERSION);
+   }
+
+   // read once, the environment of the Forge process doesn't change
+   private static final String SPRING_BOOT_CONFIG_FILE = System.getenv("SPRING_BOOT_CONFIG_FILE");
+   private static final String SPRING_BOOT_DEFAULT_VERSION = defaultVersion(
+            System.getenv("SPRING_BOOT_DEFAULT_VERSION"));
+   private static final List<String> SPRING_BOOT_VERSIONS = versions(System.getenv("SPRING_BOOT_VERSIONS"));
+
+   private static final String BUNDLED_CATALOG = "/spring-boot-application.yaml";
+   private static final long DEFAULT_CATALOG_TIMEOUT = 3000;
+   private static final long DEFAULT_CATALOG_TTL = 24;
+   private static final String ETAG = "etag";
+   private static final String LAST_MODIFIED = "last-modified";
+
+   private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "spring-boot-catalog-prefetch");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   // the current catalog, replaced as a whole when revalidated so that readers never see a partial update
+   private final AtomicReference<CompletableFuture<Catalog>> catalog = new AtomicReference<>();
+   private final AtomicReference<Catalog> bundled = new AtomicReference<>();
+   private final AtomicBoolean refreshing = new AtomicBoolean();
+
+   @Inject
+   private StarterHttpClient httpClient;
+
+   @Inject
+   private Configuration configuration;
+
+   private static String defaultVersion(String bootDefaultVersion)
+   {
+      return bootDefaultVersion != null ? bootDefaultVersion : LATEST_STABLE_SPRING_BOOT_VERSION;
+   }
+
+   private static List<String> versions(String bootVersions)
+   {
+      final List<String> versions = bootVersions != null ? splitVersions(bootVersions) : Collections.emptyList();
+      return Collections.unmodifiableList(versions.isEmpty() ? DEFAULT_SPRING_BOOT_VERSIONS : versions);
+   }
+
+   private static List<String> splitVersions(String s)
+   {
+      return Arrays.stream(s.split(","))
+            .distinct()
+            .filter(element -> !element.isEmpty())
+            .collect(Collectors.toList());
+   }
+
+   public String getDefaultVersion()
+   {
+      return SPRING_BOOT_DEFAULT_VERSION;
+   }
+
+   public List<String> getVersions()
+   {
+      return SPRING_BOOT_VERSIONS;
+   }
+
+   public String getStarterURL()
+   {
+        return configuration.getString("springboot.starterurl", STARTER_URL);
+   }
+
+   /**
+    * Starts loading the catalog in the background, unless it is already loaded or being loaded. A loaded catalog older
+    * than its TTL is still returned, but revalidated in the background for the next callers.
+    */
+   public CompletableFuture<Catalog> prefetch()
+   {
+      CompletableFuture<Catalog> current = catalog.get();
+      if (current != null && !current.isCompletedExceptionally())
+      {
+         if (current.isDone() && isStale(current.getNow(null)))
+         {
+            refresh();
+         }
+         return current;
+      }
+      CompletableFuture<Catalog> next = new CompletableFuture<>();
+      if (!catalog.compareAndSet(current, next))
+      {
+         return catalog.get();
+      }
+      execute(next, () -> {
+         long start = System.currentTimeMillis();
+         try
+         {
+            Catalog loaded = loadDependencies();
+            next.complete(loaded);
+            LOG.debug("Spring Boot catalog of {} dependencies loaded in {} ms, about {} KB of heap", loaded.size(),
+                     System.currentTimeMillis() - start, loaded.getFootprint() / 1024);
+         }
+         catch (Throwable t)
+         {
+            LOG.warn("Unable to load the Spring Boot catalog", t);
+            next.completeExceptionally(t);
+         }
+      });
+      return next;
+   }
+
+   /**
+    * Prefetches the catalog as soon as the addon is started
+    */
+   public void onStartup(@Observes @Local PostStartup event)
+   {
+      prefetch();
+   }
+
+   /**
+    * Stops the prefetch thread when the addon is stopped
+    */
+   public void onShutdown(@Observes @Local PreShutdown event)
+   {
+      prefetchExecutor.shutdownNow();
+   }
+
+   /**
+    * Returns the catalog of the dependencies that can be added to a Spring Boot project. Waits for it at most
+    * "springboot.catalog.timeout" milliseconds, falling back to the bundled catalog if it is not available in time.
+    */
+   public Catalog getCatalog(UIOutput uiOutput) throws Exception
+   {
+      CompletableFuture<Catalog> future = prefetch();
+      long timeout = configuration.getLong("springboot.catalog.timeout", DEFAULT_CATALOG_TIMEOUT);
+      try
+      {
+         return future.get(timeout, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException e)
+      {
+         info(uiOutput, "Catalog not available after " + timeout + " ms, using the bundled one");
+      }
+      catch (ExecutionException e)
+      {
+         info(uiOutput, "Catalog not available (" + e.getCause().getMessage() + "), using the bundled one");
+      }
+      return getBundledCatalog();
+   }
+
+   /**
+    * Returns the dependencies that can be added to a Spring Boot project.
+    *
+    * @see #getCatalog(UIOutput)
+    */
+   public List<SpringBootDependencyDTO> getDependencies(UIOutput uiOutput) throws Exception
+   {
+      return getCatalog(uiOutput).getDependencies();
+   }
+
+   /**
+    * Returns the catalog bundled with this addon
+    */
+   public Catalog getBundledCatalog() throws Exception
+   {
+      Catalog result = bundled.get();
+      if (result == null)
+      {
+         // concurrent first callers may both load it, but all of them get the same instance
+         bundled.compareAndSet(null, new Catalog(loadBundledDependencies()));
+         result = bundled.get();
+      }
+      return result;
+   }
+
+   /**
+    * Returns the dependencies of the catalog bundled with this addon
+    */
+   public List<SpringBootDependencyDTO> getBundledDependencies() throws Exception
+   {
+      return getBundledCatalog().getDependencies();
+   }
+
+   /**
+    * Loads the bundled catalog from the snapshot compiled at build time, unless a YAML catalog replacing it is
+    * configured as "springboot.catalog.yaml".
+    */
+   private List<SpringBootDependencyDTO> loadBundledDependencies() throws IOException
+   {
+      String override = configuration.getString("springboot.catalog.yaml");
+      if (override != null)
+      {
+         LOG.info("Use spring boot yaml catalog {}", override);
+         try (InputStream input = new FileInputStream(override))
+         {
+            return CatalogParser.parseYaml(input);
+         }
+      }
+      InputStream snapshot = getClass().getResourceAsStream(CatalogSnapshot.SNAPSHOT);
+      if (snapshot != null)
+      {
+         try (InputStream input = snapshot)
+         {
+            return CatalogSnapshot.read(input);
+         }
+      }
+      // not built with the snapshot, e.g. when running from an IDE
+      try (InputStream input = getClass().getResourceAsStream(BUNDLED_CATALOG))
+      {
+         return CatalogParser.parseYaml(input);
+      }
+   }
+
+   /**
+    * Loads the catalog from the configured YAML file, or else from the cache file when there is one, or else from the
+    * starter service unless in offline mode.
+    */
+   private Catalog loadDependencies() throws Exception
+   {
+      // Check if we have a Spring Boot Config File
+      if (SPRING_BOOT_CONFIG_FILE != null)
+      {
+         LOG.info("Use spring boot yaml config file {}", SPRING_BOOT_CONFIG_FILE);
+         try (InputStream input = new URL(SPRING_BOOT_CONFIG_FILE).openStream())
+         {
+            return new Catalog(CatalogParser.parseYaml(input));
+         }
+      }
+
+      File cacheFile = getCatalogCacheFile();
+      if (cacheFile != null && cacheFile.isFile())
+      {
+         try
+         {
+            Catalog cached;
+            try (InputStream input = new FileInputStream(cacheFile))
+            {
+               cached = new Catalog(CatalogParser.parseJson(input), cacheFile.lastModified());
+            }
+            LOG.info("Using cached catalog {}", cacheFile);
+            if (isStale(cached))
+            {
+               refresh();
+            }
+            return cached;
+         }
+         catch (Exception e)
+         {
+            LOG.warn("Ignoring unreadable catalog cache " + cacheFile, e);
+         }
+      }
+      if (isOffline())
+      {
+         // the callers fall back to the bundled catalog
+         throw new IOException("Offline mode is enabled and no catalog is cached for " + getStarterURL());
+      }
+      return fetchDependencies();
+   }
+
+   /**
+    * Fetches the dependencies list from the starter service, saving it to the cache file along with its validators so
+    * that the next sessions revalidate it with a conditional request rather than downloading it again.
+    */
+   private Catalog fetchDependencies() throws Exception
+   {
+      File cacheFile = getCatalogCacheFile();
+      File validatorsFile = cacheFile != null ? getValidatorsFile(cacheFile) : null;
+      if (cacheFile != null && cacheFile.isFile() && validatorsFile.isFile())
+      {
+         try (InputStream catalogInput = new FileInputStream(cacheFile);
+                  InputStream validatorsInput = new FileInputStream(validatorsFile))
+         {
+            PropertiesFile validators = PropertiesFile.read(validatorsInput);
+            httpClient.addCachedText(getStarterURL(), IOHelper.loadText(catalogInput), validators.get(ETAG),
+                     validators.get(LAST_MODIFIED));
+         }
+         catch (IOException e)
+         {
+            LOG.warn("Ignoring unreadable catalog validators " + validatorsFile, e);
+         }
+      }
+
+      StarterHttpClient.Response<String> fetched = httpClient.getText(getStarterURL(), "application/json");
+      StarterHttpClient.ResponseInfo info = fetched.getInfo();
+      LOG.info("Catalog response: {}", info);
+      String response = fetched.getBody();
+      Catalog dependencies = new Catalog(CatalogParser.parseJson(new StringReader(response)),
+               System.currentTimeMillis());
+
+      if (cacheFile != null)
+      {
+         try
+         {
+            if (info.isNotModified() && cacheFile.isFile())
+            {
+               // still fresh for another TTL
+               cacheFile.setLastModified(System.currentTimeMillis());
+               return dependencies;
+            }
+            cacheFile.getParentFile().mkdirs();
+            // never left describing another catalog than the cached one
+            Files.deleteIfExists(validatorsFile.toPath());
+            File tmp = new File(cacheFile.getPath() + ".tmp");
+            Files.write(tmp.toPath(), response.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (info.getETag() != null || info.getLastModified() != null)
+            {
+               PropertiesFile.update(validatorsFile, validators -> {
+                  setOrRemove(validators, ETAG, info.getETag());
+                  setOrRemove(validators, LAST_MODIFIED, info.getLastModified());
+               });
+            }
+         }
+         catch (IOException e)
+         {
+            LOG.warn("Couldn't save the catalog to " + cacheFile, e);
+         }
+      }
+      return dependencies;
+   }
+
+   private static void setOrRemove(PropertiesFile properties, String key, String value)
+   {
+      if (value != null)
+      {
+         properties.set(key, value);
+      }
+      else
+      {
+         properties.remove(key);
+      }
+   }
+
+   /**
+    * Revalidates the catalog in the background, the current one being served until the new one is available.
+    */
+   private void refresh()
+   {
+      if (isOffline() || !refreshing.compareAndSet(false, true))
+      {
+         return;
+      }
+      final CompletableFuture<Catalog> refreshed = new CompletableFuture<>();
+      refreshed.whenComplete((loaded, t) -> refreshing.set(false));
+      execute(refreshed, () -> {
+         try
+         {
+            Catalog loaded = fetchDependencies();
+            catalog.set(CompletableFuture.completedFuture(loaded));
+            refreshed.complete(loaded);
+            LOG.debug("Spring Boot catalog revalidated");
+         }
+         catch (Throwable t)
+         {
+            LOG.warn("Couldn't revalidate the Spring Boot catalog, keeping the cached one", t);
+            refreshed.completeExceptionally(t);
+         }
+      });
+   }
+
+   /**
+    * Runs the given task on the prefetch thread, failing the given future if the addon is being stopped.
+    */
+   private void execute(CompletableFuture<Catalog> future, Runnable task)
+   {
+      try
+      {
+         prefetchExecutor.execute(task);
+      }
+      catch (RejectedExecutionException e)
+      {
+         future.completeExceptionally(e);
+      }
+   }
+
+   private boolean isOffline()
+   {
+      return configuration.getBoolean("springboot.offline", false);
+   }
+
+   private boolean isStale(Catalog current)
+   {
+      long ttl = TimeUnit.HOURS.toMillis(configuration.getLong("springboot.catalog.ttl", DEFAULT_CATALOG_TTL));
+      return current.getTimestamp() != Catalog.NEVER_STALE && System.currentTimeMillis() - current.getTimestamp() > ttl;
+   }
+
+   /**
+    * Returns the file the catalog of the configured starter service is saved to, or <tt>null</tt> if the cache is
+    * disabled.
+    */
+   private File getCatalogCacheFile()
+   {
+      if (!configuration.getBoolean("springboot.cache.enabled", true))
+      {
+         return null;
+      }
+      String dir = configuration.getString("springboot.catalog.dir");
+      File catalogDir = dir != null ? new File(dir)
+               : new File(OperatingSystemUtils.getUserForgeDir(), "springboot/catalogs");
+      return new File(catalogDir, "catalog-" + Integer.toHexString(getStarterURL().hashCode()) + ".json");
+   }
+
+   /**
+    * Returns the file the ETag and Last-Modified headers of the cached catalog are saved to.
+    */
+   private static File getValidatorsFile(File cacheFile)
+   {
+      return new File(cacheFile.getPath().replaceFirst("\\.json$", "") + ".properties");
+   }
+
+   private static void info(UIOutput uiOutput, String message)
+   {
+      if (uiOutput != null)
+      {
+         uiOutput.info(uiOutput.out(), message);
+      }
+   }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of the strings of the catalogs, so that the catalogs of several Spring Boot versions, or
+ * successive revisions of the same catalog, share their group names, coordinates and descriptions instead of each
+ * holding its own copies. The strings are only weakly held, and dropped once no catalog refers to them.
+ */
+final class StringPool
+{
+   static final StringPool SHARED = new StringPool();
+
+   private final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+
+   /**
+    * Returns the canonical instance of the given string, which may be <tt>null</tt>.
+    */
+   synchronized String intern(String value)
+   {
+      if (value == null)
+      {
+         return null;
+      }
+      final WeakReference<String> existing = strings.get(value);
+      final String canonical = existing != null ? existing.get() : null;
+      if (canonical != null)
+      {
+         return canonical;
+      }
+      strings.put(value, new WeakReference<>(value));
+      return value;
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+/**
+ * A range of Spring Boot versions as written in the catalog: either a single version meaning "this version or later",
+ * or a Maven style interval such as <tt>[1.2.0.RELEASE,1.4.0.M1)</tt>.
+ */
+public final class VersionRange
+{
+   private final BootVersion lower;
+   private final boolean lowerInclusive;
+   private final BootVersion upper;
+   private final boolean upperInclusive;
+
+   private VersionRange(BootVersion lower, boolean lowerInclusive, BootVersion upper, boolean upperInclusive)
+   {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+   }
+
+   /**
+    * Parses the given range.
+    *
+    * @throws IllegalArgumentException if it isn't a valid range
+    */
+   public static VersionRange parse(String text)
+   {
+      final String range = text.trim();
+      if (range.startsWith("[") || range.startsWith("("))
+      {
+         final int comma = range.indexOf(',');
+         final char end = range.charAt(range.length() - 1);
+         if (comma < 0 || (end != ']' && end != ')'))
+         {
+            throw new IllegalArgumentException("Invalid version range: " + text);
+         }
+         final String upper = range.substring(comma + 1, range.length() - 1).trim();
+         return new VersionRange(BootVersion.parse(range.substring(1, comma)), range.charAt(0) == '[',
+                  upper.isEmpty() ? null : BootVersion.parse(upper), end == ']');
+      }
+      return new VersionRange(BootVersion.parse(range), true, null, false);
+   }
+
+   public BootVersion getLower()
+   {
+      return lower;
+   }
+
+   public boolean isLowerInclusive()
+   {
+      return lowerInclusive;
+   }
+
+   /**
+    * Returns the upper bound of the range, or <tt>null</tt> if it has none.
+    */
+   public BootVersion getUpper()
+   {
+      return upper;
+   }
+
+   public boolean isUpperInclusive()
+   {
+      return upperInclusive;
+   }
+
+   public boolean contains(BootVersion version)
+   {
+      final int low = version.compareTo(lower);
+      if (low < 0 || (low == 0 && !lowerInclusive))
+      {
+         return false;
+      }
+      if (upper == null)
+      {
+         return true;
+      }
+      final int high = version.compareTo(upper);
+      return high < 0 || (high == 0 && upperInclusive);
+   }
+
+   @Override
+   public String toString()
+   {
+      if (upper == null)
+      {
+         return ">=" + lower;
+      }
+      return (lowerInclusive ? "[" : "(") + lower + "," + upper + (upperInclusive ? "]" : ")");
+   }
+}
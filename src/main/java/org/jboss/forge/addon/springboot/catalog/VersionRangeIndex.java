@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Interval index of the dependencies of a catalog by Spring Boot version. The bounds of all the version ranges split
+ * the versions into slots, each bound being a slot of its own and so is each gap between two bounds; the dependencies
+ * available in each slot are computed once, so that finding the dependencies of a version is a binary search over the
+ * bounds.
+ */
+class VersionRangeIndex
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(VersionRangeIndex.class);
+
+   private final BootVersion[] bounds;
+   private final List<List<SpringBootDependencyDTO>> slots;
+
+   VersionRangeIndex(List<SpringBootDependencyDTO> dependencies)
+   {
+      final List<VersionRange> ranges = new ArrayList<>(dependencies.size());
+      final TreeSet<BootVersion> sortedBounds = new TreeSet<>();
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         VersionRange range = null;
+         if (dto.getVersionRange() != null)
+         {
+            try
+            {
+               range = VersionRange.parse(dto.getVersionRange());
+               sortedBounds.add(range.getLower());
+               if (range.getUpper() != null)
+               {
+                  sortedBounds.add(range.getUpper());
+               }
+            }
+            catch (IllegalArgumentException e)
+            {
+               // better offer it than hide it
+               LOG.debug("Ignoring the version range of {}: {}", dto.getId(), e.getMessage());
+            }
+         }
+         ranges.add(range);
+      }
+      bounds = sortedBounds.toArray(new BootVersion[sortedBounds.size()]);
+
+      // slot 2i + 1 is bound i, slot 2i the versions between bound i - 1 and bound i
+      final List<List<SpringBootDependencyDTO>> building = new ArrayList<>(2 * bounds.length + 1);
+      for (int i = 0; i < 2 * bounds.length + 1; i++)
+      {
+         building.add(new ArrayList<>());
+      }
+      for (int i = 0; i < dependencies.size(); i++)
+      {
+         final VersionRange range = ranges.get(i);
+         int first = 0;
+         int last = 2 * bounds.length;
+         if (range != null)
+         {
+            final int lower = Arrays.binarySearch(bounds, range.getLower());
+            first = range.isLowerInclusive() ? 2 * lower + 1 : 2 * lower + 2;
+            if (range.getUpper() != null)
+            {
+               final int upper = Arrays.binarySearch(bounds, range.getUpper());
+               last = range.isUpperInclusive() ? 2 * upper + 1 : 2 * upper;
+            }
+         }
+         for (int slot = first; slot <= last; slot++)
+         {
+            building.get(slot).add(dependencies.get(i));
+         }
+      }
+      for (int i = 0; i < building.size(); i++)
+      {
+         building.set(i, Collections.unmodifiableList(building.get(i)));
+      }
+      slots = building;
+   }
+
+   /**
+    * Returns the dependencies available for the given version, in catalog order.
+    */
+   List<SpringBootDependencyDTO> get(BootVersion version)
+   {
+      final int index = Arrays.binarySearch(bounds, version);
+      return slots.get(index >= 0 ? 2 * index + 1 : 2 * (-index - 1));
+   }
+
+   /**
+    * Returns an estimate of the heap size of the index, not counting the dependencies.
+    */
+   long getFootprint()
+   {
+      long size = Footprint.array(bounds.length, Footprint.REFERENCE) + bounds.length * Footprint.object(1, 20)
+               + Footprint.arrayList(slots.size());
+      for (List<SpringBootDependencyDTO> slot : slots)
+      {
+         // the unmodifiable wrapper and the list
+         size += Footprint.object(2, 0) + Footprint.arrayList(slot.size());
+      }
+      return size;
+   }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands;
+
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.springboot.utils.ApplicationPropertiesSession;
+import org.jboss.forge.addon.ui.command.CommandExecutionListener;
+import org.jboss.forge.addon.ui.command.UICommand;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.result.Result;
+
+/**
+ * Batches the changes made to the {@code application.properties} of a project while a command is executed, writing
+ * the file once when the command completes, even if it failed, rather than each time a step or facet changes it.
+ */
+@Singleton
+public class ApplicationPropertiesFlushListener implements CommandExecutionListener
+{
+   @Override
+   public void preCommandExecuted(UICommand command, UIExecutionContext context)
+   {
+      ApplicationPropertiesSession.begin();
+   }
+
+   @Override
+   public void postCommandExecuted(UICommand command, UIExecutionContext context, Result result)
+   {
+      ApplicationPropertiesSession.end();
+   }
+
+   @Override
+   public void postCommandFailure(UICommand command, UIExecutionContext context, Throwable failure)
+   {
+      ApplicationPropertiesSession.end();
+   }
+}
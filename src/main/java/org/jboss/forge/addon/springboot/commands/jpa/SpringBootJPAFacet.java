@@ -83,8 +83,9 @@ public class SpringBootJPAFacet extends AbstractProjectFacet implements JPAFacet
    @Override
    public FileResource<?> getConfigFile()
    {
-      // use application.properties instead of persistence.xml but do not create it to work correctly
-      return SpringBootHelper.getApplicationProperties(getFaceted(), false);
+      // use application.properties (or application.yml) instead of persistence.xml but do not create it to work
+      // correctly
+      return SpringBootHelper.getApplicationConfig(getFaceted(), false);
    }
 
    @Override
@@ -153,8 +154,8 @@ public class SpringBootJPAFacet extends AbstractProjectFacet implements JPAFacet
    @Override
    public boolean install()
    {
-      // create application.properties if it doesn't already exist
-      SpringBootHelper.getApplicationProperties(getFaceted(), true);
+      // create application.properties if there is no configuration file yet
+      SpringBootHelper.getApplicationConfig(getFaceted(), true);
 
       // add the SB JPA dependency
       installer.install(origin, SpringBootFacet.SPRING_BOOT_DATA_JPA);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.server;
+
+import javax.inject.Inject;
+
+import org.jboss.forge.addon.springboot.server.LatencyMetrics;
+import org.jboss.forge.addon.springboot.server.StarterServer;
+import org.jboss.forge.addon.ui.command.AbstractUICommand;
+import org.jboss.forge.addon.ui.context.UIBuilder;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.input.UIInput;
+import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
+import org.jboss.forge.addon.ui.metadata.WithAttributes;
+import org.jboss.forge.addon.ui.output.UIOutput;
+import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.result.Results;
+import org.jboss.forge.addon.ui.util.Categories;
+import org.jboss.forge.addon.ui.util.Metadata;
+
+/**
+ * Starts or stops the embedded {@link StarterServer}, printing its latency metrics when stopping it.
+ */
+public class StarterServerCommand extends AbstractUICommand
+{
+   private static final String CATEGORY = "Spring Boot";
+
+   @Inject
+   @WithAttributes(label = "Port", description = "Port the starter server listens on",
+            defaultValue = "8090")
+   private UIInput<Integer> port;
+
+   @Inject
+   @WithAttributes(label = "Threads", description = "Number of requests served concurrently", defaultValue = "8")
+   private UIInput<Integer> threads;
+
+   @Inject
+   @WithAttributes(label = "Stop?", description = "Stop the running starter server", defaultValue = "false")
+   private UIInput<Boolean> stop;
+
+   @Inject
+   private StarterServer server;
+
+   @Override
+   public UICommandMetadata getMetadata(UIContext context)
+   {
+      return Metadata.from(super.getMetadata(context), getClass())
+               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Starter Server")
+               .description("Serve the bundled catalog and locally generated starter projects over HTTP");
+   }
+
+   @Override
+   public void initializeUI(UIBuilder builder) throws Exception
+   {
+      builder.add(port).add(threads).add(stop);
+   }
+
+   @Override
+   public Result execute(UIExecutionContext context) throws Exception
+   {
+      UIOutput uiOutput = context.getUIContext().getProvider().getOutput();
+      if (stop.getValue())
+      {
+         if (!server.isRunning())
+         {
+            return Results.fail("The starter server is not running");
+         }
+         for (LatencyMetrics metrics : server.getMetrics())
+         {
+            uiOutput.info(uiOutput.out(), metrics.toString());
+         }
+         uiOutput.info(uiOutput.out(), String.format("archive cache: %d hits, %d misses", server.getCacheHits(),
+                  server.getCacheMisses()));
+         server.stop();
+         return Results.success("Starter server stopped");
+      }
+
+      if (server.isRunning())
+      {
+         return Results.fail("The starter server is already running on " + server.getURL());
+      }
+      server.start(port.getValue(), threads.getValue());
+      return Results.success("Starter server listening on " + server.getURL()
+               + ", use it with: config-set --key springboot.starterurl --value " + server.getURL());
+   }
+}
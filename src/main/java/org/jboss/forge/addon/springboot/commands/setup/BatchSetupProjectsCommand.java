@@ -0,0 +1,267 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+
+import org.jboss.forge.addon.resource.DirectoryResource;
+import org.jboss.forge.addon.resource.FileResource;
+import org.jboss.forge.addon.resource.Resource;
+import org.jboss.forge.addon.springboot.catalog.Catalog;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.addon.springboot.dto.SpringBootProjectDTO;
+import org.jboss.forge.addon.ui.command.AbstractUICommand;
+import org.jboss.forge.addon.ui.context.UIBuilder;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.input.UIInput;
+import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
+import org.jboss.forge.addon.ui.metadata.WithAttributes;
+import org.jboss.forge.addon.ui.output.UIOutput;
+import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.result.Results;
+import org.jboss.forge.addon.ui.util.Categories;
+import org.jboss.forge.addon.ui.util.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Generates several Spring Boot projects at once from a YAML (or JSON) manifest, on a pool of workers sharing the same
+ * catalog and HTTP client.
+ */
+public class BatchSetupProjectsCommand extends AbstractUICommand
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(BatchSetupProjectsCommand.class);
+
+   private static final String CATEGORY = "Spring Boot";
+   private static final String WEB_DEPENDENCY = "web";
+   private static final Pattern ARTIFACT_ID = Pattern.compile("[A-Za-z0-9_\\-.]+");
+
+   @Inject
+   @WithAttributes(label = "Manifest", required = true, description = "YAML or JSON file listing the projects to "
+            + "generate")
+   private UIInput<FileResource<?>> manifest;
+
+   @Inject
+   @WithAttributes(label = "Target Location", required = true, description = "Directory in which the projects are "
+            + "created, each one in a sub-directory named after its artifactId")
+   private UIInput<DirectoryResource> targetLocation;
+
+   @Inject
+   @WithAttributes(label = "Workers", description = "Number of projects generated concurrently", defaultValue = "4")
+   private UIInput<Integer> workers;
+
+   @Inject
+   @WithAttributes(label = "Generate locally?", description = "Generate the projects from the templates bundled in the "
+            + "addon instead of querying the starter service", defaultValue = "false")
+   private UIInput<Boolean> generateLocally;
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   @Inject
+   private StarterProjectGenerator generator;
+
+   @Inject
+   private LocalProjectGenerator localProjectGenerator;
+
+   @Override
+   public UICommandMetadata getMetadata(UIContext context)
+   {
+      return Metadata.from(super.getMetadata(context), getClass())
+               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Batch Setup")
+               .description("Create several Spring Boot projects described in a manifest");
+   }
+
+   @Override
+   public void initializeUI(UIBuilder builder) throws Exception
+   {
+      Object selection = builder.getUIContext().getInitialSelection().get();
+      if (selection instanceof DirectoryResource)
+      {
+         targetLocation.setDefaultValue((DirectoryResource) selection);
+      }
+      builder.add(manifest).add(targetLocation).add(workers).add(generateLocally);
+   }
+
+   @Override
+   public Result execute(UIExecutionContext context) throws Exception
+   {
+      UIOutput uiOutput = context.getUIContext().getProvider().getOutput();
+      List<SpringBootProjectDTO> specs = readManifest(manifest.getValue());
+      if (specs.isEmpty())
+      {
+         return Results.fail("No project found in manifest " + manifest.getValue().getFullyQualifiedName());
+      }
+
+      // validate all the specs against the shared catalog before generating anything, falling back to the bundled
+      // catalog if it can't be loaded in time
+      Catalog catalog = catalogService.getCatalog(uiOutput);
+      Set<String> artifactIds = new HashSet<>();
+      for (SpringBootProjectDTO spec : specs)
+      {
+         if (spec.getGroupId() == null || spec.getArtifactId() == null)
+         {
+            return Results.fail("Each project of the manifest requires a groupId and an artifactId");
+         }
+         // the artifactId names the folder of the project, it must stay in the target location
+         String artifactId = spec.getArtifactId();
+         if (!ARTIFACT_ID.matcher(artifactId).matches() || ".".equals(artifactId) || "..".equals(artifactId))
+         {
+            return Results.fail("Invalid artifactId '" + artifactId + "', only letters, digits, '-', '_' and '.' "
+                     + "are allowed");
+         }
+         // compared ignoring case as two folders can't differ only by case on every file system
+         if (!artifactIds.add(artifactId.toLowerCase(Locale.ROOT)))
+         {
+            return Results.fail("Duplicate artifactId '" + artifactId + "' in manifest, each project is created in "
+                     + "a folder named after it");
+         }
+         String bootVersion = spec.getBootVersion() != null ? spec.getBootVersion()
+                  : catalogService.getDefaultVersion();
+         for (String id : spec.getDependencies())
+         {
+            SpringBootDependencyDTO dto = catalog.get(id);
+            if (dto == null)
+            {
+               return Results.fail("Unknown dependency '" + id + "' for project " + spec.getArtifactId());
+            }
+            if (!catalog.isAvailable(dto, bootVersion))
+            {
+               return Results.fail("Dependency '" + id + "' of project " + spec.getArtifactId()
+                        + " requires Spring Boot " + dto.getVersionRange() + " and isn't available for " + bootVersion);
+            }
+         }
+         if (generateLocally.getValue())
+         {
+            List<String> problems = localProjectGenerator.checkDependencies(spec.getDependencies());
+            if (!problems.isEmpty())
+            {
+               return Results.fail("Project " + spec.getArtifactId() + " can't be generated locally: "
+                        + String.join(", ", problems));
+            }
+         }
+      }
+
+      File target = targetLocation.getValue().getUnderlyingResourceObject();
+      boolean local = generateLocally.getValue();
+      int poolSize = Math.max(1, Math.min(workers.getValue(), specs.size()));
+      uiOutput.info(uiOutput.out(), "Generating " + specs.size() + " projects with " + poolSize + " workers");
+
+      long start = System.nanoTime();
+      ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+      int failures = 0;
+      try
+      {
+         List<Future<Long>> results = new ArrayList<>(specs.size());
+         for (SpringBootProjectDTO spec : specs)
+         {
+            results.add(pool.submit(() -> generate(spec, new File(target, spec.getArtifactId()), local)));
+         }
+         for (int i = 0; i < specs.size(); i++)
+         {
+            String name = specs.get(i).getArtifactId();
+            try
+            {
+               long elapsed = results.get(i).get();
+               uiOutput.info(uiOutput.out(), String.format("%s: %d ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            }
+            catch (ExecutionException e)
+            {
+               failures++;
+               LOG.warn("Couldn't generate project " + name, e.getCause());
+               uiOutput.error(uiOutput.err(), name + ": failed due: " + e.getCause().getMessage());
+            }
+         }
+      }
+      finally
+      {
+         pool.shutdownNow();
+      }
+
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (failures > 0)
+      {
+         return Results.fail(failures + " of " + specs.size() + " projects couldn't be generated in " + elapsed
+                  + " ms");
+      }
+      return Results.success("Created " + specs.size() + " Spring Boot projects in " + elapsed + " ms");
+   }
+
+   /**
+    * Generates the project described by the given spec in the given folder.
+    *
+    * @return the time it took in nanoseconds
+    */
+   private long generate(SpringBootProjectDTO spec, File folder, boolean local) throws Exception
+   {
+      long start = System.nanoTime();
+      Set<String> dependencies = new LinkedHashSet<>(spec.getDependencies());
+      if (spec.isStaticContent())
+      {
+         dependencies.add(WEB_DEPENDENCY);
+      }
+      String bootVersion = spec.getBootVersion() != null ? spec.getBootVersion() : catalogService.getDefaultVersion();
+      StarterRequest request = new StarterRequest(bootVersion, spec.getGroupId(), spec.getArtifactId(),
+               spec.getVersion(), spec.getPackageName(), dependencies);
+
+      folder.mkdirs();
+      generator.generate(request, folder, local, false);
+      generator.customize(folder, request, spec.getPort(), spec.isStaticContent());
+      return System.nanoTime() - start;
+   }
+
+   /**
+    * Reads the projects listed in the manifest, either as a top level list or under a {@code projects} key.
+    */
+   private static List<SpringBootProjectDTO> readManifest(Resource<?> resource) throws Exception
+   {
+      Object data;
+      try (InputStream input = resource.getResourceInputStream())
+      {
+         // YAML being a superset of JSON, both formats are supported; only plain maps, lists and scalars are built so
+         // that a manifest can't instantiate arbitrary classes through global tags
+         data = new Yaml(new SafeConstructor()).load(input);
+      }
+      if (data instanceof Map)
+      {
+         data = ((Map) data).get("projects");
+      }
+
+      List<SpringBootProjectDTO> specs = new ArrayList<>();
+      if (data instanceof List)
+      {
+         ObjectMapper mapper = new ObjectMapper();
+         for (Object item : (List) data)
+         {
+            specs.add(mapper.convertValue(item, SpringBootProjectDTO.class));
+         }
+      }
+      return specs;
+   }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.forge.addon.springboot.utils.OverlayReport;
+
+/**
+ * The files of a project generated by the {@link LocalProjectGenerator}, indexed by their path relative to the project
+ * root. Directories are recorded with a trailing slash and no content.
+ */
+public class GeneratedProject
+{
+   private final Map<String, String> files = new TreeMap<>();
+
+   void addFile(String path, String content)
+   {
+      files.put(path, content);
+   }
+
+   void addDirectory(String path)
+   {
+      files.put(path.endsWith("/") ? path : path + "/", null);
+   }
+
+   public Map<String, String> getFiles()
+   {
+      return Collections.unmodifiableMap(files);
+   }
+
+   /**
+    * Writes the generated files under the given folder, overwriting existing files with the same path.
+    */
+   public void writeTo(File folder) throws IOException
+   {
+      for (Map.Entry<String, String> file : files.entrySet())
+      {
+         final File target = new File(folder, file.getKey());
+         if (file.getValue() == null)
+         {
+            target.mkdirs();
+         }
+         else
+         {
+            target.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream(target))
+            {
+               out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+         }
+      }
+   }
+
+   /**
+    * Overlays the generated files on top of the given folder, only writing the ones that differ from what's on disk,
+    * and records them in the given report as they are written.
+    */
+   public void overlayTo(File folder, OverlayReport report) throws IOException
+   {
+      for (Map.Entry<String, String> file : files.entrySet())
+      {
+         if (file.getValue() == null)
+         {
+            report.mkdir(folder, file.getKey());
+         }
+         else
+         {
+            report.write(folder, file.getKey(), file.getValue().getBytes(StandardCharsets.UTF_8));
+         }
+      }
+   }
+
+   /**
+    * Writes the generated files as a zip archive, laid out the same way as the ones returned by the starter service.
+    */
+   public void writeZip(OutputStream out) throws IOException
+   {
+      final ZipOutputStream zip = new ZipOutputStream(out);
+      for (Map.Entry<String, String> file : files.entrySet())
+      {
+         zip.putNextEntry(new ZipEntry(file.getKey()));
+         if (file.getValue() != null)
+         {
+            zip.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+         }
+         zip.closeEntry();
+      }
+      zip.finish();
+   }
+}
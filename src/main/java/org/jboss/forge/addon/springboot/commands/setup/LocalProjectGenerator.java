@@ -0,0 +1,208 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.resource.Resource;
+import org.jboss.forge.addon.resource.ResourceFactory;
+import org.jboss.forge.addon.springboot.SpringBootFacet;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.addon.templates.Template;
+import org.jboss.forge.addon.templates.TemplateFactory;
+import org.jboss.forge.addon.templates.freemarker.FreemarkerTemplate;
+
+/**
+ * Generates Spring Boot projects without querying the starter service: the pom, application class and resources are
+ * rendered from templates bundled in this addon, the Maven coordinates of the dependencies being looked up in the
+ * bundled catalog.
+ */
+@Singleton
+public class LocalProjectGenerator
+{
+   private static final String APPLICATION_NAME = "DemoApplication";
+   private static final String BASE_STARTER = "spring-boot-starter";
+   private static final String WEB_FACET = "web";
+
+   @Inject
+   private TemplateFactory templateFactory;
+
+   @Inject
+   private ResourceFactory resourceFactory;
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   /**
+    * Renders the project described by the given request.
+    *
+    * @throws IOException if a dependency can't be generated locally, see {@link #checkDependencies(Collection)}
+    */
+   public GeneratedProject generate(StarterRequest request) throws IOException
+   {
+      final List<String> problems = checkDependencies(request.getDependencies());
+      if (!problems.isEmpty())
+      {
+         throw new IOException(String.join(", ", problems));
+      }
+      final List<Map<String, Object>> dependencies = new ArrayList<>();
+      boolean hasStarter = false;
+      boolean web = false;
+      for (String id : request.getDependencies())
+      {
+         final Map<String, Object> dependency = toDependency(id);
+         hasStarter |= (Boolean) dependency.remove("starter");
+         web |= (Boolean) dependency.remove("web");
+         dependencies.add(dependency);
+      }
+      if (!hasStarter)
+      {
+         dependencies.add(coordinates(SpringBootFacet.SPRING_BOOT_GROUP_ID, BASE_STARTER, null));
+      }
+      dependencies.sort(Comparator.comparing((Map<String, Object> d) -> d.get("scope") == null ? "" : "~")
+               .thenComparing(d -> (String) d.get("artifactId")));
+
+      final String packageName = request.getPackageName();
+      final String packagePath = packageName.replace('.', '/');
+
+      final Map<Object, Object> model = new HashMap<>();
+      model.put("bootVersion", request.getBootVersion());
+      model.put("groupId", request.getGroupId());
+      model.put("artifactId", request.getArtifactId());
+      model.put("version", request.getVersion());
+      model.put("packageName", packageName);
+      model.put("applicationName", APPLICATION_NAME);
+      model.put("dependencies", dependencies);
+
+      final GeneratedProject project = new GeneratedProject();
+      project.addFile("pom.xml", process("pom.ftl", model));
+      project.addFile("src/main/java/" + packagePath + "/" + APPLICATION_NAME + ".java",
+               process("Application.jv", model));
+      project.addFile("src/test/java/" + packagePath + "/" + APPLICATION_NAME + "Tests.java",
+               process("ApplicationTests.jv", model));
+      project.addFile("src/main/resources/application.properties", "");
+      if (web)
+      {
+         project.addDirectory("src/main/resources/static");
+         project.addDirectory("src/main/resources/templates");
+      }
+      return project;
+   }
+
+   /**
+    * Returns why the given dependencies can't be generated locally, if any: their Maven coordinates are only known for
+    * the ids of the bundled catalog, and the dependencies whose version comes from a bill of materials would be
+    * rendered without a version since the catalog only names their BOM.
+    *
+    * @return the problems found, empty if the dependencies can be generated locally
+    */
+   public List<String> checkDependencies(Collection<String> ids)
+   {
+      final List<String> problems = new ArrayList<>();
+      for (String id : ids)
+      {
+         final SpringBootDependencyDTO item = getCatalogItem(id);
+         if (item == null)
+         {
+            problems.add("Dependency '" + id + "' isn't in the bundled catalog and can't be generated locally");
+         }
+         else if (item.getBom() != null && item.getVersion() == null)
+         {
+            problems.add("The version of '" + id + "' is managed by the " + item.getBom() + " bill of materials "
+                     + "and can't be generated locally");
+         }
+      }
+      return problems;
+   }
+
+   /**
+    * Returns the pom model of the given dependency id of the bundled catalog along with its {@code starter} and
+    * {@code web} flags.
+    */
+   private Map<String, Object> toDependency(String id)
+   {
+      final SpringBootDependencyDTO item = getCatalogItem(id);
+      final boolean starter = item.isStarter();
+      final Map<String, Object> dependency = coordinates(getGroupId(item), getArtifactId(item), item.getVersion());
+
+      final String scope = item.getScope();
+      if ("compileOnly".equals(scope))
+      {
+         dependency.put("optional", true);
+      }
+      else if (scope != null && !"compile".equals(scope))
+      {
+         dependency.put("scope", scope);
+      }
+      dependency.put("starter", starter);
+      dependency.put("web", item.getFacets().contains(WEB_FACET));
+      return dependency;
+   }
+
+   /**
+    * Returns the groupId of the given catalog item, the Spring Boot one if it doesn't declare any.
+    */
+   static String getGroupId(SpringBootDependencyDTO item)
+   {
+      return item.getGroupId() != null ? item.getGroupId() : SpringBootFacet.SPRING_BOOT_GROUP_ID;
+   }
+
+   /**
+    * Returns the artifactId of the given catalog item, derived from its id if it doesn't declare any.
+    */
+   static String getArtifactId(SpringBootDependencyDTO item)
+   {
+      if (item.getArtifactId() != null)
+      {
+         return item.getArtifactId();
+      }
+      return item.isStarter() ? BASE_STARTER + "-" + item.getId() : item.getId();
+   }
+
+   private static Map<String, Object> coordinates(String groupId, String artifactId, String version)
+   {
+      final Map<String, Object> dependency = new LinkedHashMap<>();
+      dependency.put("groupId", groupId);
+      dependency.put("artifactId", artifactId);
+      if (version != null)
+      {
+         dependency.put("version", version);
+      }
+      return dependency;
+   }
+
+   private String process(String template, Map<Object, Object> model) throws IOException
+   {
+      Resource<URL> templateResource = resourceFactory.create(getClass().getResource(template));
+      Template processor = templateFactory.create(templateResource, FreemarkerTemplate.class);
+      return processor.process(model);
+   }
+
+   private SpringBootDependencyDTO getCatalogItem(String id)
+   {
+      try
+      {
+         return catalogService.getBundledCatalog().get(id);
+      }
+      catch (Exception e)
+      {
+         throw new IllegalStateException("Error loading the bundled dependencies catalog", e);
+      }
+   }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.forge.addon.springboot.catalog.BootVersion;
+
+/**
+ * Tuned configuration values for a Spring Boot application, scaled to the cores, memory and concurrency it is expected
+ * to run with, each one along with why it was chosen. The property names follow the Spring Boot version: the thread
+ * properties of Tomcat moved in 2.3, and the default connection pool went from Tomcat JDBC to HikariCP in 2.0.
+ */
+public final class PerformancePresets
+{
+   private static final BootVersion BOOT_2_0 = BootVersion.parse("2.0.0.M1");
+   private static final BootVersion BOOT_2_3 = BootVersion.parse("2.3.0.M1");
+
+   // the stack and buffers of a worker thread, in MB
+   private static final int THREAD_FOOTPRINT = 2;
+   private static final int MIN_THREADS = 10;
+   private static final int COMPRESSION_MIN_SIZE = 2048;
+   private static final int JDBC_BATCH_SIZE = 25;
+   private static final int JDBC_FETCH_SIZE = 100;
+
+   private final List<Preset> values = new ArrayList<>();
+
+   private PerformancePresets()
+   {
+   }
+
+   /**
+    * Computes the presets for the given Spring Boot version and target.
+    *
+    * @param cores the number of cores available to the application
+    * @param memory the memory available to the application, in MB
+    * @param concurrency the number of requests expected to be served at the same time
+    */
+   public static List<Preset> compute(BootVersion bootVersion, int cores, int memory, int concurrency)
+   {
+      final PerformancePresets presets = new PerformancePresets();
+      final boolean boot2 = bootVersion.compareTo(BOOT_2_0) >= 0;
+      final boolean boot23 = bootVersion.compareTo(BOOT_2_3) >= 0;
+
+      // web server
+      final int memoryBound = Math.max(MIN_THREADS, memory / THREAD_FOOTPRINT);
+      final int maxThreads = Math.max(MIN_THREADS, Math.min(concurrency, memoryBound));
+      presets.add(boot23 ? "server.tomcat.threads.max" : "server.tomcat.max-threads", maxThreads,
+               concurrency <= memoryBound
+                        ? "one worker per expected concurrent request (" + concurrency + ")"
+                        : "capped by memory, about " + THREAD_FOOTPRINT + " MB of stack and buffers per worker");
+      final int minSpare = Math.min(maxThreads, Math.max(MIN_THREADS, cores * 2));
+      presets.add(boot23 ? "server.tomcat.threads.min-spare" : "server.tomcat.min-spare-threads", minSpare,
+               "two idle workers per core, at least " + MIN_THREADS
+                        + ", so that a burst doesn't wait for threads to be started");
+      presets.add("server.tomcat.accept-count", maxThreads,
+               "a backlog as large as the worker pool absorbs one burst, beyond that refusing connections is "
+                        + "better than queuing them for longer than a request takes");
+
+      // compression
+      presets.add("server.compression.enabled", "true", "text responses shrink 5 to 10 times on the wire");
+      presets.add("server.compression.mime-types",
+               "application/json,application/xml,text/html,text/xml,text/plain,text/css,application/javascript",
+               "only the text formats, images and archives are already compressed");
+      presets.add("server.compression.min-response-size", COMPRESSION_MIN_SIZE,
+               "smaller responses fit in a couple of TCP segments, compressing them costs more CPU than it saves");
+
+      // connection pool, see https://github.com/brettwooldridge/HikariCP/wiki/About-Pool-Sizing
+      final int poolSize = Math.min(maxThreads, cores * 2 + 1);
+      final String poolRationale = "cores * 2 + 1: the database works on as many queries at once as it has cores, "
+               + "plus those waiting on I/O";
+      if (boot2)
+      {
+         presets.add("spring.datasource.hikari.maximum-pool-size", poolSize, poolRationale);
+         presets.add("spring.datasource.hikari.minimum-idle", poolSize,
+                  "a fixed size pool doesn't open connections under load");
+      }
+      else
+      {
+         presets.add("spring.datasource.tomcat.max-active", poolSize, poolRationale);
+         presets.add("spring.datasource.tomcat.max-idle", poolSize,
+                  "a fixed size pool doesn't open connections under load");
+         presets.add("spring.datasource.tomcat.min-idle", poolSize,
+                  "a fixed size pool doesn't open connections under load");
+      }
+
+      // JPA
+      presets.add("spring.jpa.properties.hibernate.jdbc.batch_size", JDBC_BATCH_SIZE,
+               "sends the inserts and updates of a flush by groups of " + JDBC_BATCH_SIZE
+                        + " rather than one round trip each");
+      presets.add("spring.jpa.properties.hibernate.order_inserts", "true",
+               "groups the inserts by entity so that the batches aren't broken up");
+      presets.add("spring.jpa.properties.hibernate.order_updates", "true",
+               "groups the updates by entity so that the batches aren't broken up");
+      presets.add("spring.jpa.properties.hibernate.jdbc.batch_versioned_data", "true",
+               "lets the updates of versioned entities be batched too");
+      presets.add("spring.jpa.properties.hibernate.jdbc.fetch_size", JDBC_FETCH_SIZE,
+               "reads the results by " + JDBC_FETCH_SIZE + " rows instead of the driver default, 10 for Oracle");
+      presets.add("spring.jpa.open-in-view", "false",
+               "releases the connection when the transaction ends instead of holding it while the view renders, "
+                        + "which the pool size above relies on");
+      return Collections.unmodifiableList(presets.values);
+   }
+
+   private void add(String key, Object value, String rationale)
+   {
+      values.add(new Preset(key, value.toString(), rationale));
+   }
+
+   /**
+    * A configuration value and why it was chosen.
+    */
+   public static class Preset
+   {
+      private final String key;
+      private final String value;
+      private final String rationale;
+
+      Preset(String key, String value, String rationale)
+      {
+         this.key = key;
+         this.value = value;
+         this.rationale = rationale;
+      }
+
+      public String getKey()
+      {
+         return key;
+      }
+
+      public String getValue()
+      {
+         return value;
+      }
+
+      public String getRationale()
+      {
+         return rationale;
+      }
+
+      @Override
+      public String toString()
+      {
+         return key + "=" + value + " (" + rationale + ")";
+      }
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.maven.model.Parent;
+import org.jboss.forge.addon.maven.projects.MavenFacet;
+import org.jboss.forge.addon.projects.Project;
+import org.jboss.forge.addon.springboot.catalog.BootVersion;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.utils.SpringBootHelper;
+import org.jboss.forge.addon.ui.context.UIBuilder;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.context.UIValidationContext;
+import org.jboss.forge.addon.ui.input.UIInput;
+import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
+import org.jboss.forge.addon.ui.metadata.WithAttributes;
+import org.jboss.forge.addon.ui.output.UIOutput;
+import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.result.Results;
+import org.jboss.forge.addon.ui.util.Categories;
+import org.jboss.forge.addon.ui.util.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a profile of tuned web server, connection pool and JPA settings to the configuration of a Spring Boot
+ * project, scaled to the cores, memory and concurrency it targets, see {@link PerformancePresets}.
+ */
+public class PerformanceProfileCommand extends AbstractSpringBootCommand
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(PerformanceProfileCommand.class);
+
+   private static final String CATEGORY = "Spring Boot";
+   private static final String PARENT_ARTIFACT = "spring-boot-starter-parent";
+
+   @Inject
+   @WithAttributes(label = "Profile", description = "The Spring profile activating the settings", defaultValue = "perf")
+   private UIInput<String> profile;
+
+   @Inject
+   @WithAttributes(label = "Cores", description = "The number of cores available to the application")
+   private UIInput<Integer> cores;
+
+   @Inject
+   @WithAttributes(label = "Memory", description = "The memory available to the application, in MB",
+            defaultValue = "1024")
+   private UIInput<Integer> memory;
+
+   @Inject
+   @WithAttributes(label = "Concurrency", description = "The number of requests expected to be served at the same "
+            + "time", defaultValue = "200")
+   private UIInput<Integer> concurrency;
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   @Override
+   public UICommandMetadata getMetadata(UIContext context)
+   {
+      return Metadata.from(super.getMetadata(context), getClass())
+               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Performance Profile")
+               .description("Write tuned server, connection pool and JPA settings to a profile of the project");
+   }
+
+   @Override
+   public void initializeUI(UIBuilder builder) throws Exception
+   {
+      cores.setDefaultValue(Runtime.getRuntime().availableProcessors());
+      builder.add(profile).add(cores).add(memory).add(concurrency);
+   }
+
+   @Override
+   public void validate(UIValidationContext validator)
+   {
+      validatePositive(validator, cores);
+      validatePositive(validator, memory);
+      validatePositive(validator, concurrency);
+   }
+
+   private static void validatePositive(UIValidationContext validator, UIInput<Integer> input)
+   {
+      if (input.getValue() != null && input.getValue() <= 0)
+      {
+         validator.addValidationError(input, input.getLabel() + " must be positive");
+      }
+   }
+
+   @Override
+   public Result execute(UIExecutionContext context) throws Exception
+   {
+      UIOutput uiOutput = context.getUIContext().getProvider().getOutput();
+      Project project = getSelectedProject(context.getUIContext());
+
+      String bootVersion = getBootVersion(project);
+      List<PerformancePresets.Preset> presets = PerformancePresets.compute(BootVersion.parse(bootVersion),
+               cores.getValue(), memory.getValue(), concurrency.getValue());
+
+      uiOutput.info(uiOutput.out(), "Settings for Spring Boot " + bootVersion + ", " + cores.getValue() + " cores, "
+               + memory.getValue() + " MB and " + concurrency.getValue() + " concurrent requests:");
+      for (PerformancePresets.Preset preset : presets)
+      {
+         uiOutput.info(uiOutput.out(), String.format("%s=%s%n    %s", preset.getKey(), preset.getValue(),
+                  preset.getRationale()));
+      }
+
+      boolean changed = SpringBootHelper.updateApplicationConfig(project, profile.getValue(), file -> {
+         for (PerformancePresets.Preset preset : presets)
+         {
+            file.set(preset.getKey(), preset.getValue());
+         }
+      });
+      return Results.success(changed ? "Wrote the " + profile.getValue() + " profile, activate it with "
+               + "--spring.profiles.active=" + profile.getValue() : "The " + profile.getValue()
+               + " profile is already up to date");
+   }
+
+   /**
+    * Returns the Spring Boot version of the project parent, or the default version if it has another parent.
+    */
+   private String getBootVersion(Project project)
+   {
+      if (project.hasFacet(MavenFacet.class))
+      {
+         Parent parent = project.getFacet(MavenFacet.class).getModel().getParent();
+         if (parent != null && PARENT_ARTIFACT.equals(parent.getArtifactId()))
+         {
+            try
+            {
+               BootVersion.parse(parent.getVersion());
+               return parent.getVersion();
+            }
+            catch (IllegalArgumentException e)
+            {
+               // e.g. a property reference
+               LOG.debug("Ignoring the parent version {}", parent.getVersion());
+            }
+         }
+      }
+      return catalogService.getDefaultVersion();
+   }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.jboss.forge.addon.springboot.catalog.Catalog;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.addon.ui.command.AbstractUICommand;
+import org.jboss.forge.addon.ui.context.UIBuilder;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.input.UIInput;
+import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
+import org.jboss.forge.addon.ui.metadata.WithAttributes;
+import org.jboss.forge.addon.ui.output.UIOutput;
+import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.result.Results;
+import org.jboss.forge.addon.ui.util.Categories;
+import org.jboss.forge.addon.ui.util.Metadata;
+
+/**
+ * Searches the dependencies of the catalog by id, name, group or description, tolerating typos and partial words.
+ */
+public class SearchDependenciesCommand extends AbstractUICommand
+{
+   private static final String CATEGORY = "Spring Boot";
+   private static final int COMPLETION_LIMIT = 10;
+
+   @Inject
+   @WithAttributes(label = "Query", description = "Words to look for in the dependencies", required = true)
+   private UIInput<String> query;
+
+   @Inject
+   @WithAttributes(label = "Limit", description = "Maximum number of dependencies to list", defaultValue = "10")
+   private UIInput<Integer> limit;
+
+   @Inject
+   @WithAttributes(label = "Spring Boot Version", description = "Only list the dependencies available for this version")
+   private UIInput<String> springBootVersion;
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   @Override
+   public UICommandMetadata getMetadata(UIContext context)
+   {
+      return Metadata.from(super.getMetadata(context), getClass())
+               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Search Dependencies")
+               .description("Search the Spring Boot Starters and dependencies of the catalog");
+   }
+
+   @Override
+   public void initializeUI(UIBuilder builder) throws Exception
+   {
+      UIOutput uiOutput = builder.getUIContext().getProvider().getOutput();
+      Catalog catalog = catalogService.getCatalog(uiOutput);
+
+      // complete the query with the ids of the best matches of what was typed so far
+      query.setCompleter((context, input, value) -> {
+         List<String> ids = new ArrayList<>();
+         if (value != null && !value.isEmpty())
+         {
+            for (SpringBootDependencyDTO dto : catalog.search(value, COMPLETION_LIMIT))
+            {
+               ids.add(dto.getId());
+            }
+         }
+         return ids;
+      });
+      builder.add(query).add(limit).add(springBootVersion);
+   }
+
+   @Override
+   public Result execute(UIExecutionContext context) throws Exception
+   {
+      UIOutput uiOutput = context.getUIContext().getProvider().getOutput();
+      Catalog catalog = catalogService.getCatalog(uiOutput);
+      String bootVersion = springBootVersion.getValue();
+
+      // over-fetch when filtering by version, the search doesn't know about versions
+      int max = limit.getValue();
+      List<SpringBootDependencyDTO> found = catalog.search(query.getValue(), bootVersion == null ? max : catalog.size());
+      int count = 0;
+      for (SpringBootDependencyDTO dto : found)
+      {
+         if (count == max)
+         {
+            break;
+         }
+         if (catalog.isAvailable(dto, bootVersion))
+         {
+            uiOutput.info(uiOutput.out(), String.format("%-30s %s (%s): %s", dto.getId(), dto.getName(),
+                     dto.getGroup(), dto.getDescription()));
+            count++;
+         }
+      }
+      if (count == 0)
+      {
+         return Results.fail("No dependency matches '" + query.getValue() + "'");
+      }
+      return Results.success(count + " matching dependencies");
+   }
+}
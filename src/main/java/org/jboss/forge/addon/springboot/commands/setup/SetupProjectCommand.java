@@ -6,38 +6,30 @@
  */
 package org.jboss.forge.addon.springboot.commands.setup;
 
-import static org.jboss.forge.addon.maven.archetype.ArchetypeHelper.recursiveDelete;
-import static org.jboss.forge.addon.springboot.utils.ConvertHelper.jsonToMap;
-import static org.jboss.forge.addon.springboot.utils.ConvertHelper.removeDoubleQuotes;
-import static org.jboss.forge.addon.springboot.utils.IOHelper.close;
-import static org.jboss.forge.addon.springboot.utils.IOHelper.copyAndCloseInput;
-import static org.jboss.forge.addon.springboot.utils.UnzipHelper.unzip;
-
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
-import javax.ws.rs.client.Client;
 
-import org.jboss.forge.addon.configuration.Configuration;
 import org.jboss.forge.addon.facets.FacetFactory;
 import org.jboss.forge.addon.projects.Project;
+import org.jboss.forge.addon.projects.facets.DependencyFacet;
 import org.jboss.forge.addon.projects.facets.MetadataFacet;
 import org.jboss.forge.addon.projects.facets.ResourcesFacet;
 import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.FileResource;
-import org.jboss.forge.addon.rest.ClientFactory;
 import org.jboss.forge.addon.springboot.SpringBootFacet;
+import org.jboss.forge.addon.springboot.catalog.Catalog;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
 import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
-import org.jboss.forge.addon.springboot.utils.CollectionStringBuffer;
+import org.jboss.forge.addon.springboot.utils.OverlayReport;
+import org.jboss.forge.addon.springboot.utils.SetupCancelledException;
+import org.jboss.forge.addon.springboot.utils.SetupProgress;
 import org.jboss.forge.addon.springboot.utils.SpringBootHelper;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.context.UIValidationContext;
 import org.jboss.forge.addon.ui.input.UIInput;
 import org.jboss.forge.addon.ui.input.UISelectMany;
 import org.jboss.forge.addon.ui.input.UISelectOne;
@@ -47,12 +39,10 @@ import org.jboss.forge.addon.ui.output.UIOutput;
 import org.jboss.forge.addon.ui.result.Result;
 import org.jboss.forge.addon.ui.result.Results;
 import org.jboss.forge.addon.ui.util.Categories;
-import org.jboss.forge.addon.ui.util.Commands;
 import org.jboss.forge.addon.ui.util.Metadata;
 import org.jboss.forge.addon.ui.wizard.UIWizardStep;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
 
 public class SetupProjectCommand extends AbstractSpringBootCommand implements UIWizardStep
 {
@@ -62,41 +52,6 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
    // lets use a different category for this command
    private static final String CATEGORY = "Spring Boot";
 
-   private static String SPRING_BOOT_CONFIG_FILE;
-   private static String SPRING_BOOT_DEFAULT_VERSION;
-   private static List<String> SPRING_BOOT_VERSIONS;
-   private static final List<String> DEFAULT_SPRING_BOOT_VERSIONS = new ArrayList<>(5);
-   private static final String LATEST_STABLE_SPRING_BOOT_VERSION = "1.5.4.RELEASE";
-   private static final String RHOAR_SUPPORTED_VERSION = "1.4.1.RELEASE";
-   private static final String LATEST_1_4_SPRING_BOOT_VERSION = "1.4.7.RELEASE";
-   private static final String LATEST_2_0_VERSION = "2.3.3.RELEASE";
-
-   static {
-      Collections.addAll(DEFAULT_SPRING_BOOT_VERSIONS, RHOAR_SUPPORTED_VERSION, LATEST_1_4_SPRING_BOOT_VERSION,
-               LATEST_STABLE_SPRING_BOOT_VERSION, LATEST_2_0_VERSION);
-   }
-
-   private static final String STARTER_ZIP_URL = "/starter.zip";
-   private static final String STARTER_URL = "https://start.spring.io";
-   private static List deps = new ArrayList<>();
-
-   public SetupProjectCommand()
-   {
-      if (SPRING_BOOT_DEFAULT_VERSION == null) {
-         final String bootDefaultVersion = System.getenv("SPRING_BOOT_DEFAULT_VERSION");
-         SPRING_BOOT_DEFAULT_VERSION = bootDefaultVersion != null ? bootDefaultVersion
-                  : LATEST_STABLE_SPRING_BOOT_VERSION;
-      }
-      if (SPRING_BOOT_VERSIONS == null || SPRING_BOOT_VERSIONS.isEmpty()) {
-         final String bootVersions = System.getenv("SPRING_BOOT_VERSIONS");
-         SPRING_BOOT_VERSIONS = bootVersions != null ? splitVersions(bootVersions) : DEFAULT_SPRING_BOOT_VERSIONS;
-      }
-
-      if (SPRING_BOOT_CONFIG_FILE == null) {
-         SPRING_BOOT_CONFIG_FILE = System.getenv("SPRING_BOOT_CONFIG_FILE");
-      }
-   }
-
    @Inject
    @WithAttributes(label = "Spring Boot Version", description = "Spring Boot Version to use")
    private UISelectOne<String> springBootVersion;
@@ -111,39 +66,52 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
          "8080")
    private UIInput<Integer> port;
 
+   @Inject
+   @WithAttributes(label = "Generate locally?", description = "Generate the project from the templates bundled in the "
+            + "addon instead of querying the starter service", defaultValue = "false")
+   private UIInput<Boolean> generateLocally;
+
+   @Inject
+   @WithAttributes(label = "Only write changed files?", description = "Keep the existing project and only write the "
+            + "files whose content differs from the generated ones", defaultValue = "false")
+   private UIInput<Boolean> overlay;
+
+   @Inject
+   @WithAttributes(label = "Warm up the local repository?", description = "Resolve the selected dependencies into "
+            + "the local Maven repository once the project is created", defaultValue = "false")
+   private UIInput<Boolean> warmup;
+
    @Inject
    @WithAttributes(label = "Dependencies", description = "Add Spring Boot Starters and dependencies to your application")
    private UISelectMany<SpringBootDependencyDTO> dependencies;
 
    @Inject
-   private ClientFactory factory;
+   private FacetFactory facetFactory;
 
    @Inject
-   private FacetFactory facetFactory;
+   private SpringBootCatalogService catalogService;
 
    @Inject
-   private Configuration configuration;
+   private StarterProjectGenerator generator;
 
-   private List<SpringBootDependencyDTO> choices;
+   @Inject
+   private LocalProjectGenerator localProjectGenerator;
 
-   private static List<String> splitVersions(String s)
-   {
-      return Arrays.stream(s.split(","))
-            .distinct()
-            .filter(element -> !element.isEmpty())
-            .collect(Collectors.toList());
-   }
+   @Inject
+   private StarterWarmup starterWarmup;
+
+   private Catalog catalog;
 
    @Override
    public void initializeUI(UIBuilder builder) throws Exception
    {
       UIOutput uiOutput = builder.getUIContext().getProvider().getOutput();
-      springBootVersion.setValueChoices(SPRING_BOOT_VERSIONS);
-      springBootVersion.setDefaultValue(SPRING_BOOT_DEFAULT_VERSION);
+      springBootVersion.setValueChoices(catalogService.getVersions());
+      springBootVersion.setDefaultValue(catalogService.getDefaultVersion());
 
       try
       {
-         choices = initDependencies(uiOutput);
+         catalog = catalogService.getCatalog(uiOutput);
       }
       catch (Exception e)
       {
@@ -153,7 +121,8 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
                            + e.getMessage(), e);
       }
 
-      dependencies.setValueChoices(choices);
+      // only offer the dependencies available for the selected Spring Boot version
+      dependencies.setValueChoices(() -> catalog.getDependencies(springBootVersion.getValue()));
       if (builder.getUIContext().getProvider().isGUI())
       {
          dependencies.setItemLabelConverter(SpringBootDependencyDTO::getGroupAndName);
@@ -161,61 +130,54 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
       else
       {
          // if in CLI mode then use shorter names so they are tab friendly in the shell
-         dependencies.setItemLabelConverter(
-                  dto -> Commands.shellifyCommandName(dto.getName()));
+         // the labels are computed once per catalog
+         dependencies.setItemLabelConverter(catalog::getShellLabel);
       }
 
-      dependencies.setValueConverter(s ->
-      {
-         for (SpringBootDependencyDTO dto : choices)
-         {
-            if (dto.getId().equals(s))
-            {
-               return dto;
-            }
-         }
-         return null;
-      });
+      // looked up by exact id or shell label, prefixes are only completed
+      dependencies.setValueConverter(catalog::resolve);
 
-      builder.add(springBootVersion).add(dependencies).add(createStaticContent).add(port);
+      builder.add(springBootVersion).add(dependencies).add(createStaticContent).add(port).add(generateLocally)
+               .add(overlay).add(warmup);
    }
 
-   private List<SpringBootDependencyDTO> initDependencies(UIOutput uiOutput) throws Exception
+   @Override
+   public UICommandMetadata getMetadata(UIContext context)
    {
-      List<SpringBootDependencyDTO> list = new ArrayList<>();
+      return Metadata.from(super.getMetadata(context), getClass())
+               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Setup")
+               .description("Create a new Spring Boot project");
+   }
 
-      for (Object dep : fetchDependencies(uiOutput))
+   @Override
+   public void validate(UIValidationContext validator)
+   {
+      final String bootVersion = springBootVersion.getValue();
+      final Iterable<SpringBootDependencyDTO> selected = dependencies.getValue();
+      if (catalog == null || selected == null)
+      {
+         return;
+      }
+      for (SpringBootDependencyDTO dto : selected)
       {
-         Map<String,Object> group = (Map) dep;
-         String groupName = removeDoubleQuotes(group.get("name"));
-         List<Map<String,String>> content;
-         // Add this test as the json file & yaml file uses a different key
-         if (group.get("content") != null)
+         if (!catalog.isAvailable(dto, bootVersion))
          {
-            content = (List) group.get("content");
+            validator.addValidationError(dependencies, dto.getName() + " requires Spring Boot " + dto.getVersionRange()
+                     + " and isn't available for " + bootVersion);
          }
-         else
+      }
+      if (Boolean.TRUE.equals(generateLocally.getValue()))
+      {
+         final List<String> ids = new ArrayList<>();
+         for (SpringBootDependencyDTO dto : selected)
          {
-            content = (List) group.get("values");
+            ids.add(dto.getId());
          }
-         for (Object row : content)
+         for (String problem : localProjectGenerator.checkDependencies(ids))
          {
-            Map<String, Object> item = (Map) row;
-            String id = removeDoubleQuotes(item.get("id"));
-            String name = removeDoubleQuotes(item.get("name"));
-            String description = removeDoubleQuotes(item.get("description"));
-            list.add(new SpringBootDependencyDTO(groupName, id, name, description));
+            validator.addValidationError(generateLocally, problem);
          }
       }
-      return list;
-   }
-
-   @Override
-   public UICommandMetadata getMetadata(UIContext context)
-   {
-      return Metadata.from(super.getMetadata(context), getClass())
-               .category(Categories.create(CATEGORY)).name(CATEGORY + ": Setup")
-               .description("Create a new Spring Boot project");
    }
 
    @Override
@@ -238,70 +200,65 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
       String projectVersion = metadataFacet.getProjectVersion();
       File folder = project.getRoot().reify(DirectoryResource.class).getUnderlyingResourceObject();
 
-      Map<String, SpringBootDependencyDTO> selectedDTOs = new HashMap<>();
-      int[] selected = dependencies.getSelectedIndexes();
-      CollectionStringBuffer csbSpringBoot = new CollectionStringBuffer(",");
-      for (int val : selected)
+      Map<String, SpringBootDependencyDTO> selectedDTOs = new LinkedHashMap<>();
+      for (SpringBootDependencyDTO dto : dependencies.getValue())
       {
-         SpringBootDependencyDTO dto = choices.get(val);
-         csbSpringBoot.append(dto.getId());
          selectedDTOs.put(dto.getId(), dto);
       }
-      String springBootDeps = csbSpringBoot.toString();
 
       // boot version need the RELEASE suffix
       String bootVersion = springBootVersion.getValue();
 
-      String url = String
-               .format("%s?bootVersion=%s&groupId=%s&artifactId=%s&version=%s&packageName=%s&dependencies=%s",
-                        getStarterURL() + STARTER_ZIP_URL, bootVersion, projectGroupId, projectName, projectVersion, projectGroupId,
-                        springBootDeps);
-
-      LOG.info("About to query url: " + url);
-      LOG.info("Version of the User Agent:" + USER_AGENT);
-      uiOutput.info(uiOutput.out(), "About to query spring starter: " + url);
-
-      Client client = factory.createClient();
-      InputStream is = client.target(url)
-                              .request()
-                              .header("User-Agent",USER_AGENT)
-                              .get(InputStream.class);
-
-      // some archetypes might not use maven or use the maven source layout so lets remove
-      // the pom.xml and src folder if its already been pre-created
-      // as these will be created if necessary via the archetype jar's contents
-      File pom = new File(folder, "pom.xml");
-      if (pom.isFile() && pom.exists())
+      StarterRequest starterRequest = new StarterRequest(bootVersion, projectGroupId, projectName, projectVersion,
+               projectGroupId, selectedDTOs.keySet());
+      String url = generator.getStarterZipURL(starterRequest);
+
+      boolean local = generateLocally.getValue();
+      if (!generator.isAvailable(starterRequest, local))
       {
-         pom.delete();
+         return Results.fail("Offline mode is enabled and no cached starter archive is available for: " + url);
       }
-      File src = new File(folder, "src");
-      if (src.isDirectory() && src.exists())
+      if (local)
       {
-         recursiveDelete(src);
+         uiOutput.info(uiOutput.out(), "Generating project with the bundled templates");
       }
-
-      File name = new File(folder, projectName + ".zip");
-      if (name.exists())
+      else
       {
-         name.delete();
+         LOG.info("Version of the User Agent:" + USER_AGENT);
+         uiOutput.info(uiOutput.out(), "About to query spring starter: " + url);
       }
 
-      FileOutputStream fos = new FileOutputStream(name, false);
-      copyAndCloseInput(is, fos);
-      close(fos);
-      client.close();
-
-      // unzip the download from spring starter
-      unzip(name, folder);
+      // the pom.xml and src folder are only replaced once the starter project is complete
+      boolean overlayFiles = overlay.getValue();
+      SetupProgress progress = new SetupProgress(context.getProgressMonitor());
+      OverlayReport report;
+      try
+      {
+         report = generator.generate(starterRequest, folder, local, overlayFiles, progress);
+      }
+      catch (SetupCancelledException e)
+      {
+         return Results.fail(e.getMessage() + ", the partially created files were removed");
+      }
+      uiOutput.info(uiOutput.out(), progress.getSummary());
+      if (report != null)
+      {
+         LOG.info("Overlaid starter project on folder {}: {}", folder.getAbsolutePath(), report);
+         uiOutput.info(uiOutput.out(), "Overlaid starter project: " + report);
+         for (String path : report.getAdded())
+         {
+            uiOutput.info(uiOutput.out(), "  added: " + path);
+         }
+         for (String path : report.getModified())
+         {
+            uiOutput.info(uiOutput.out(), "  modified: " + path);
+         }
+      }
 
       LOG.info("Unzipped file to folder: {}", folder.getAbsolutePath());
       uiOutput.info(uiOutput.out(),
                "Unzipped file to folder: " + folder.getAbsolutePath());
 
-      // and delete the zip file
-      name.delete();
-
       // set port if needed
       final Integer portValue = port.getValue();
       if (portValue != 8080) {
@@ -320,61 +277,33 @@ public class SetupProjectCommand extends AbstractSpringBootCommand implements UI
          }
 
          // add SpringBootServletInitializer to generated Spring Boot application
-         SpringBootHelper.modifySpringBootApplication(project, sbApp -> {
-            sbApp.addImport("org.springframework.boot.builder.SpringApplicationBuilder");
-            sbApp.setSuperType("org.springframework.boot.web.support.SpringBootServletInitializer");
-            sbApp.addMethod("@Override\n" +
-                  "               protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {\n" +
-                  "                  return application.sources(" + sbApp.getName() + ".class);\n" +
-                  "               }");
-
-            return sbApp;
-         });
+         SpringBootHelper.modifySpringBootApplication(project, StarterProjectGenerator::addServletInitializer);
 
          // add web dependency
          SpringBootHelper.addSpringBootDependency(project, SpringBootFacet.SPRING_BOOT_STARTER_WEB_ARTIFACT);
       }
 
-      // are there any fabric8 dependencies to add afterwards?
-      return Results.success(
-               "Created new Spring Boot project in directory: " + folder.getName());
-   }
-
-   private String getStarterURL()
-   {
-        return configuration.getString("springboot.starterurl", STARTER_URL);
-   }
-
-   private List fetchDependencies(UIOutput uiOutput) throws Exception
-   {
-      if(deps.size() > 0) {
-         return deps;
-      } else {
-         // Check if we have a Spring Boot Config File
-         if (SPRING_BOOT_CONFIG_FILE != null)
-         {
-            uiOutput.info(uiOutput.out(),"Use spring boot yaml config file");
-                     Yaml yaml = new Yaml();
-            InputStream input = new URL(SPRING_BOOT_CONFIG_FILE).openStream();
-            Map<String, Map> data = (Map) yaml.load(input);
-            Map<String,List<Map>> initializer = (Map) data.get("initializr");
-            deps = initializer.get("dependencies");
-         }
-         else
+      if (warmup.getValue())
+      {
+         uiOutput.info(uiOutput.out(), "Resolving the dependencies into the local Maven repository");
+         long start = System.currentTimeMillis();
+         for (StarterWarmup.Timing timing : starterWarmup.warmup(bootVersion,
+                  project.getFacet(DependencyFacet.class).getDependencies()))
          {
-            // Fetch the dependencies list from the start.spring.io server
-            uiOutput.info(uiOutput.out(),"Fetch deps from start.spring.io");
-            Client client = factory.createClient();
-            String response = client.target(getStarterURL())
-                     .request()
-                     .header("User-Agent",USER_AGENT)
-                     .get(String.class);
-            client.close();
-            Map<String,Object> data = jsonToMap(response);
-            Map<String,List<Map>> dependencies = (Map) data.get("dependencies");
-            deps = dependencies.get("values");
+            if (timing.getError() != null)
+            {
+               uiOutput.warn(uiOutput.out(), timing.toString());
+            }
+            else
+            {
+               uiOutput.info(uiOutput.out(), timing.toString());
+            }
          }
-         return deps;
+         uiOutput.info(uiOutput.out(), "Local repository warmed up in " + (System.currentTimeMillis() - start) + " ms");
       }
+
+      // are there any fabric8 dependencies to add afterwards?
+      return Results.success(
+               "Created new Spring Boot project in directory: " + folder.getName());
    }
 }
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.configuration.Configuration;
+import org.jboss.forge.furnace.util.OperatingSystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of the archives returned by the starter service, keyed by a hash of the normalized parameters used
+ * to generate them.
+ * <p/>
+ * The last modification time of a cached archive is the time it was downloaded and is used for the age based
+ * eviction, while its last access time is updated on each hit and drives the LRU eviction once the cache grows over
+ * its maximum size.
+ */
+@Singleton
+public class StarterArchiveCache
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(StarterArchiveCache.class);
+
+   private static final String ARCHIVE_SUFFIX = ".zip";
+   private static final long DEFAULT_MAX_SIZE_MB = 200;
+   private static final long DEFAULT_MAX_AGE_HOURS = 24 * 7;
+
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+
+   @Inject
+   private Configuration configuration;
+
+   /**
+    * Computes the cache key of a starter archive. Blank parameters are ignored and the dependency ids are sorted and
+    * de-duplicated so that the same selection made in a different order maps to the same archive.
+    */
+   public static String key(String starterURL, String bootVersion, String groupId, String artifactId, String version,
+            String packageName, Collection<String> dependencies)
+   {
+      final StringBuilder normalized = new StringBuilder();
+      for (String value : new String[] { starterURL, bootVersion, groupId, artifactId, version, packageName })
+      {
+         normalized.append(value == null ? "" : value.trim()).append('\n');
+      }
+      final TreeSet<String> sortedDependencies = new TreeSet<>();
+      for (String dependency : dependencies)
+      {
+         if (dependency != null && !dependency.trim().isEmpty())
+         {
+            sortedDependencies.add(dependency.trim());
+         }
+      }
+      normalized.append(String.join(",", sortedDependencies));
+
+      try
+      {
+         final byte[] digest = MessageDigest.getInstance("SHA-256")
+                  .digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+         final StringBuilder hex = new StringBuilder(digest.length * 2);
+         for (byte b : digest)
+         {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+         }
+         return hex.toString();
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException("SHA-256 is not available", e);
+      }
+   }
+
+   public boolean isEnabled()
+   {
+      return configuration.getBoolean("springboot.cache.enabled", true);
+   }
+
+   /**
+    * In offline mode, starter archives are only served from the cache and the starter service is never queried.
+    */
+   public boolean isOffline()
+   {
+      return configuration.getBoolean("springboot.offline", false);
+   }
+
+   public File getDirectory()
+   {
+      final String dir = configuration.getString("springboot.cache.dir", null);
+      return dir != null ? new File(dir) : new File(OperatingSystemUtils.getUserForgeDir(), "springboot/starters");
+   }
+
+   private long getMaxSize()
+   {
+      return configuration.getLong("springboot.cache.maxsize", DEFAULT_MAX_SIZE_MB) * 1024 * 1024;
+   }
+
+   private long getMaxAge()
+   {
+      return TimeUnit.HOURS.toMillis(configuration.getLong("springboot.cache.maxage", DEFAULT_MAX_AGE_HOURS));
+   }
+
+   /**
+    * Returns the cached archive for the given key or <tt>null</tt> if there's none or if it expired.
+    */
+   public File get(String key)
+   {
+      if (!isEnabled())
+      {
+         return null;
+      }
+      final File archive = new File(getDirectory(), key + ARCHIVE_SUFFIX);
+      if (archive.isFile() && System.currentTimeMillis() - archive.lastModified() <= getMaxAge())
+      {
+         touch(archive);
+         hits.incrementAndGet();
+         return archive;
+      }
+      misses.incrementAndGet();
+      return null;
+   }
+
+   /**
+    * Returns whether a non expired archive is cached for the given key, without counting it as a hit nor a miss.
+    */
+   public boolean contains(String key)
+   {
+      final File archive = new File(getDirectory(), key + ARCHIVE_SUFFIX);
+      return isEnabled() && archive.isFile() && System.currentTimeMillis() - archive.lastModified() <= getMaxAge();
+   }
+
+   /**
+    * Wraps the given stream so that everything read from it is also written to the cache under the given key. The
+    * archive is only added to the cache by {@link CachingInputStream#commit()}, once the caller could extract it:
+    * closing the stream without committing it discards what was read, be it a partial download or a body that isn't an
+    * archive.
+    */
+   public CachingInputStream cacheWhileReading(String key, InputStream in) throws IOException
+   {
+      if (!isEnabled())
+      {
+         return new CachingInputStream(in, null, null);
+      }
+      final File directory = getDirectory();
+      if (!directory.isDirectory() && !directory.mkdirs())
+      {
+         LOG.warn("Couldn't create starter archive cache directory {}", directory);
+         return new CachingInputStream(in, null, null);
+      }
+      final File tmp = File.createTempFile(key, ".tmp", directory);
+      return new CachingInputStream(in, tmp, new File(directory, key + ARCHIVE_SUFFIX));
+   }
+
+   /**
+    * Removes the expired archives then the least recently used ones until the cache fits in its maximum size.
+    */
+   public void evict()
+   {
+      final File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(ARCHIVE_SUFFIX));
+      if (files == null)
+      {
+         return;
+      }
+      final long now = System.currentTimeMillis();
+      final long maxAge = getMaxAge();
+      final List<CachedArchive> archives = new ArrayList<>(files.length);
+      long total = 0;
+      for (File file : files)
+      {
+         if (now - file.lastModified() > maxAge)
+         {
+            delete(file);
+            continue;
+         }
+         final CachedArchive archive = new CachedArchive(file);
+         archives.add(archive);
+         total += archive.size;
+      }
+
+      final long maxSize = getMaxSize();
+      archives.sort(Comparator.comparingLong(archive -> archive.lastAccess));
+      for (CachedArchive archive : archives)
+      {
+         if (total <= maxSize)
+         {
+            break;
+         }
+         delete(archive.file);
+         total -= archive.size;
+      }
+   }
+
+   public long getHits()
+   {
+      return hits.get();
+   }
+
+   public long getMisses()
+   {
+      return misses.get();
+   }
+
+   public String getStatistics()
+   {
+      final File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(ARCHIVE_SUFFIX));
+      long size = 0;
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            size += file.length();
+         }
+      }
+      return String.format("hits=%d, misses=%d, entries=%d, size=%d bytes", getHits(), getMisses(),
+               files == null ? 0 : files.length, size);
+   }
+
+   private static void touch(File archive)
+   {
+      try
+      {
+         Files.getFileAttributeView(archive.toPath(), BasicFileAttributeView.class)
+                  .setTimes(null, FileTime.fromMillis(System.currentTimeMillis()), null);
+      }
+      catch (IOException e)
+      {
+         // ignore, the archive will just look less recently used than it is
+      }
+   }
+
+   private static void delete(File file)
+   {
+      if (!file.delete())
+      {
+         LOG.warn("Couldn't evict cached starter archive {}", file);
+      }
+   }
+
+   private static class CachedArchive
+   {
+      private final File file;
+      private final long size;
+      private final long lastAccess;
+
+      CachedArchive(File file)
+      {
+         this.file = file;
+         this.size = file.length();
+         long access;
+         try
+         {
+            access = Files.readAttributes(file.toPath(), BasicFileAttributes.class).lastAccessTime().toMillis();
+         }
+         catch (IOException e)
+         {
+            access = file.lastModified();
+         }
+         this.lastAccess = access;
+      }
+   }
+
+   /**
+    * A stream writing what is read from it to a temporary file, moved to the cache when committed.
+    */
+   public class CachingInputStream extends FilterInputStream
+   {
+      private final File tmp;
+      private final File target;
+      private final OutputStream out;
+      private boolean failed;
+      private boolean committed;
+      private boolean closed;
+
+      CachingInputStream(InputStream in, File tmp, File target) throws IOException
+      {
+         super(in);
+         this.tmp = tmp;
+         this.target = target;
+         this.out = tmp != null ? new FileOutputStream(tmp) : null;
+      }
+
+      @Override
+      public int read() throws IOException
+      {
+         try
+         {
+            final int b = super.read();
+            if (b != -1 && out != null)
+            {
+               out.write(b);
+            }
+            return b;
+         }
+         catch (IOException e)
+         {
+            failed = true;
+            throw e;
+         }
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException
+      {
+         try
+         {
+            final int n = super.read(b, off, len);
+            if (n > 0 && out != null)
+            {
+               out.write(b, off, n);
+            }
+            return n;
+         }
+         catch (IOException e)
+         {
+            failed = true;
+            throw e;
+         }
+      }
+
+      @Override
+      public long skip(long n) throws IOException
+      {
+         // go through read so that skipped bytes are cached too
+         final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+         final int read = read(buffer, 0, buffer.length);
+         return Math.max(read, 0);
+      }
+
+      @Override
+      public boolean markSupported()
+      {
+         return false;
+      }
+
+      /**
+       * Adds the archive to the cache, reading what is left of it first: zip readers usually stop before the central
+       * directory. To be called once the archive was successfully extracted, and before the stream is closed.
+       */
+      public void commit()
+      {
+         if (out == null || committed || closed || failed)
+         {
+            return;
+         }
+         try
+         {
+            final byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) != -1)
+            {
+               // drain
+            }
+            out.close();
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            evict();
+         }
+         catch (IOException e)
+         {
+            LOG.warn("Couldn't cache starter archive " + target, e);
+            failed = true;
+         }
+      }
+
+      /**
+       * Closes the stream, discarding what was read if it wasn't committed.
+       */
+      @Override
+      public void close() throws IOException
+      {
+         if (closed)
+         {
+            return;
+         }
+         closed = true;
+         try
+         {
+            if (out != null && !committed)
+            {
+               out.close();
+               if (tmp.exists() && !tmp.delete())
+               {
+                  LOG.warn("Couldn't delete partial starter archive {}", tmp);
+               }
+            }
+         }
+         finally
+         {
+            super.close();
+         }
+      }
+   }
+}
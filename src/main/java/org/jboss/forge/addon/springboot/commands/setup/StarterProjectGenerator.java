@@ -0,0 +1,388 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import static org.jboss.forge.addon.maven.archetype.ArchetypeHelper.recursiveDelete;
+import static org.jboss.forge.addon.springboot.utils.IOHelper.copy;
+import static org.jboss.forge.addon.springboot.utils.IOHelper.uncloseable;
+import static org.jboss.forge.addon.springboot.utils.UnzipHelper.overlay;
+import static org.jboss.forge.addon.springboot.utils.UnzipHelper.unzip;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.configuration.Configuration;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.utils.AnnotationIndex;
+import org.jboss.forge.addon.springboot.utils.OverlayReport;
+import org.jboss.forge.addon.springboot.utils.PropertiesFile;
+import org.jboss.forge.addon.springboot.utils.SetupProgress;
+import org.jboss.forge.addon.springboot.utils.SpringBootHelper;
+import org.jboss.forge.addon.springboot.utils.StarterHttpClient;
+import org.jboss.forge.roaster.Roaster;
+import org.jboss.forge.roaster.model.source.JavaClassSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces the files of a Spring Boot starter project in a folder, either from the starter service (going through the
+ * {@link StarterArchiveCache}) or from the {@link LocalProjectGenerator}.
+ */
+@Singleton
+public class StarterProjectGenerator
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(StarterProjectGenerator.class);
+
+   public static final String STARTER_ZIP_URL = "/starter.zip";
+
+   // the folder the project is generated in before replacing the one of the user
+   private static final String STAGING_PREFIX = ".spring-boot-setup";
+
+   @Inject
+   private Configuration configuration;
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   @Inject
+   private StarterArchiveCache starterCache;
+
+   @Inject
+   private StarterHttpClient httpClient;
+
+   @Inject
+   private LocalProjectGenerator localProjectGenerator;
+
+   public String getStarterZipURL(StarterRequest request)
+   {
+      return catalogService.getStarterURL() + STARTER_ZIP_URL + "?" + request.toQueryString();
+   }
+
+   /**
+    * Returns whether the given request can be served, which isn't the case in offline mode when the starter archive
+    * isn't cached yet.
+    */
+   public boolean isAvailable(StarterRequest request, boolean local)
+   {
+      return local || !starterCache.isOffline() || starterCache.contains(cacheKey(request));
+   }
+
+   /**
+    * Writes the starter project described by the given request in the given folder.
+    *
+    * @param local whether to generate the project locally rather than querying the starter service
+    * @param overlayFiles whether to only write the files that differ from the ones already in the folder
+    * @return the report of the changed files when overlaying, <tt>null</tt> otherwise
+    */
+   public OverlayReport generate(StarterRequest request, File folder, boolean local,
+            boolean overlayFiles) throws IOException
+   {
+      return generate(request, folder, local, overlayFiles, new SetupProgress(null));
+   }
+
+   /**
+    * Writes the starter project described by the given request in the given folder, reporting the download and
+    * extraction to the given progress. Unless overlaying, the project is generated in a staging folder first and only
+    * replaces the pom and sources of the folder once complete, so a failed or cancelled setup leaves them as they were.
+    * When an overlay fails, the files and folders it added are removed; the files it had already modified can't be
+    * restored, they are reported in the log.
+    *
+    * @param local whether to generate the project locally rather than querying the starter service
+    * @param overlayFiles whether to only write the files that differ from the ones already in the folder
+    * @return the report of the changed files when overlaying, <tt>null</tt> otherwise
+    */
+   public OverlayReport generate(StarterRequest request, File folder, boolean local, boolean overlayFiles,
+            SetupProgress progress) throws IOException
+   {
+      // filled as the overlay writes, so that it knows what to revert when interrupted
+      final OverlayReport report = overlayFiles ? new OverlayReport() : null;
+      try
+      {
+         if (overlayFiles)
+         {
+            doGenerate(request, folder, local, report, progress);
+            return report;
+         }
+         folder.mkdirs();
+         final File staging = Files.createTempDirectory(folder.toPath(), STAGING_PREFIX).toFile();
+         try
+         {
+            doGenerate(request, staging, local, null, progress);
+            replaceProject(staging, folder);
+         }
+         finally
+         {
+            recursiveDelete(staging);
+         }
+         return null;
+      }
+      catch (IOException | RuntimeException e)
+      {
+         if (report != null)
+         {
+            revertOverlay(folder, report);
+         }
+         throw e;
+      }
+      finally
+      {
+         progress.done();
+         LOG.info("Setup of {}: {}", request.getArtifactId(), progress.getSummary());
+      }
+   }
+
+   /**
+    * Writes the starter project in the given folder, overlaying it when given a report to fill.
+    */
+   private void doGenerate(StarterRequest request, File folder, boolean local, OverlayReport report,
+            SetupProgress progress) throws IOException
+   {
+      if (local)
+      {
+         progress.begin("Generating the Spring Boot project", 1);
+         SetupProgress.Stage generation = progress.stage("Generation", -1);
+         GeneratedProject generated = localProjectGenerator.generate(request);
+         generation.checkCancelled();
+         if (report != null)
+         {
+            generated.overlayTo(folder, report);
+         }
+         else
+         {
+            generated.writeTo(folder);
+         }
+         for (String content : generated.getFiles().values())
+         {
+            if (content != null)
+            {
+               generation.entry(content.length());
+            }
+         }
+         generation.finish();
+         return;
+      }
+
+      String url = getStarterZipURL(request);
+      String cacheKey = cacheKey(request);
+      File cachedArchive = starterCache.get(cacheKey);
+      if (cachedArchive != null)
+      {
+         LOG.info("Using cached starter archive {} for url: {}", cachedArchive, url);
+         progress.begin("Extracting the cached starter project", 1);
+         SetupProgress.Stage extraction = progress.stage("Extraction", -1);
+         if (report != null)
+         {
+            overlay(new FileInputStream(cachedArchive), folder, extraction, report);
+         }
+         else
+         {
+            unzip(cachedArchive, folder, extraction);
+         }
+         extraction.finish();
+      }
+      else if (starterCache.isOffline())
+      {
+         throw new IOException("Offline mode is enabled and no cached starter archive is available for: " + url);
+      }
+      else
+      {
+         LOG.info("About to query url: " + url);
+         progress.begin("Downloading the starter project", 2);
+         StarterHttpClient.Response<InputStream> starter = httpClient.openStream(url);
+         StarterHttpClient.ResponseInfo response = starter.getInfo();
+         LOG.info("Starter response: {}", response);
+         SetupProgress.Stage download = progress.stage("Download", response.getDecodedLength());
+         // track below the cache so that a cancelled download is never cached, and only cache what could be
+         // extracted: an error page served with a 200 isn't an archive
+         try (StarterArchiveCache.CachingInputStream is = starterCache.cacheWhileReading(cacheKey,
+                  download.track(starter.getBody())))
+         {
+            if (isStreamingSetup())
+            {
+               // unzip the entries while the response body is still arriving, no need for a temporary archive
+               SetupProgress.Stage extraction = progress.stage("Extraction", -1);
+               if (report != null)
+               {
+                  overlay(uncloseable(is), folder, extraction, report);
+               }
+               else
+               {
+                  unzip(uncloseable(is), folder, extraction);
+               }
+               is.commit();
+               download.finish();
+               extraction.finish();
+            }
+            else
+            {
+               File name = new File(folder, request.getArtifactId() + ".zip");
+               if (name.exists())
+               {
+                  name.delete();
+               }
+
+               try
+               {
+                  copy(is, name.toPath());
+                  download.finish();
+
+                  // unzip the download from spring starter
+                  SetupProgress.Stage extraction = progress.stage("Extraction", -1);
+                  if (report != null)
+                  {
+                     overlay(new FileInputStream(name), folder, extraction, report);
+                  }
+                  else
+                  {
+                     unzip(name, folder, extraction);
+                  }
+                  is.commit();
+                  extraction.finish();
+               }
+               finally
+               {
+                  // and delete the zip file
+                  name.delete();
+               }
+            }
+         }
+      }
+      LOG.info("Starter archive cache statistics: {}", starterCache.getStatistics());
+   }
+
+   /**
+    * Applies the port and static content options of the setup to a generated project folder, without going through
+    * the project model so that it can be used from any thread.
+    */
+   public void customize(File folder, StarterRequest request, Integer port, boolean staticContent)
+            throws IOException
+   {
+      File resources = new File(folder, "src/main/resources");
+      if (port != null && port != 8080)
+      {
+         PropertiesFile.update(new File(resources, "application.properties"),
+                  properties -> properties.set("server.port", port.toString()));
+      }
+
+      if (staticContent)
+      {
+         new File(resources, "static").mkdirs();
+
+         // the generated class is named after the project by the newer starter services
+         File application = AnnotationIndex.of(new File(folder, "src/main/java"))
+                  .findFirst(SpringBootHelper.SPRING_BOOT_APPLICATION);
+         if (application != null)
+         {
+            JavaClassSource sbApp = Roaster.parse(JavaClassSource.class, application);
+            addServletInitializer(sbApp);
+            Files.write(application.toPath(), sbApp.toString().getBytes(StandardCharsets.UTF_8));
+         }
+      }
+   }
+
+   /**
+    * Makes the given Spring Boot application class deployable as a war by extending SpringBootServletInitializer.
+    */
+   public static JavaClassSource addServletInitializer(JavaClassSource sbApp)
+   {
+      sbApp.addImport("org.springframework.boot.builder.SpringApplicationBuilder");
+      sbApp.setSuperType("org.springframework.boot.web.support.SpringBootServletInitializer");
+      sbApp.addMethod("@Override\n" +
+            "               protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {\n" +
+            "                  return application.sources(" + sbApp.getName() + ".class);\n" +
+            "               }");
+
+      return sbApp;
+   }
+
+   private String cacheKey(StarterRequest request)
+   {
+      return StarterArchiveCache.key(catalogService.getStarterURL(), request.getBootVersion(), request.getGroupId(),
+               request.getArtifactId(), request.getVersion(), request.getPackageName(), request.getDependencies());
+   }
+
+   /**
+    * Replaces the pom and sources of the folder with the project generated in the staging folder, the other files of
+    * the folder being overwritten by the generated ones of the same path.
+    */
+   private static void replaceProject(File staging, File folder) throws IOException
+   {
+      // some archetypes might not use maven or use the maven source layout so lets remove
+      // the pom.xml and src folder if its already been pre-created
+      // as these will be created if necessary via the starter project
+      Files.deleteIfExists(new File(folder, "pom.xml").toPath());
+      final File src = new File(folder, "src");
+      if (src.isDirectory())
+      {
+         recursiveDelete(src);
+      }
+      moveInto(staging.toPath(), folder.toPath());
+   }
+
+   private static void moveInto(Path from, Path to) throws IOException
+   {
+      final List<Path> children;
+      try (Stream<Path> list = Files.list(from))
+      {
+         children = list.collect(Collectors.toList());
+      }
+      for (Path child : children)
+      {
+         final Path target = to.resolve(child.getFileName().toString());
+         if (Files.isDirectory(child) && Files.isDirectory(target))
+         {
+            moveInto(child, target);
+         }
+         else
+         {
+            if (Files.isDirectory(target))
+            {
+               recursiveDelete(target.toFile());
+            }
+            Files.move(child, target, StandardCopyOption.REPLACE_EXISTING);
+         }
+      }
+   }
+
+   /**
+    * Removes the files and folders a failed or cancelled overlay added to the folder, and reports the files it had
+    * already modified, which are left partially applied.
+    */
+   private static void revertOverlay(File folder, OverlayReport report)
+   {
+      try
+      {
+         report.revert(folder);
+      }
+      catch (IOException e)
+      {
+         LOG.warn("Couldn't remove the files left by the interrupted setup in " + folder, e);
+      }
+      if (!report.getModified().isEmpty())
+      {
+         LOG.warn("The interrupted setup left the overlay of {} partially applied, these files were modified: {}",
+                  folder, report.getModified());
+      }
+   }
+
+   private boolean isStreamingSetup()
+   {
+      return configuration.getBoolean("springboot.streaming", true);
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.forge.addon.springboot.utils.CollectionStringBuffer;
+
+/**
+ * The parameters a Spring Boot starter project is generated from, whether by the starter service or locally.
+ */
+public class StarterRequest
+{
+   private final String bootVersion;
+   private final String groupId;
+   private final String artifactId;
+   private final String version;
+   private final String packageName;
+   private final List<String> dependencies;
+
+   public StarterRequest(String bootVersion, String groupId, String artifactId, String version, String packageName,
+            Collection<String> dependencies)
+   {
+      this.bootVersion = bootVersion;
+      this.groupId = groupId;
+      this.artifactId = artifactId;
+      this.version = version;
+      this.packageName = packageName;
+      this.dependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+   }
+
+   public String getBootVersion()
+   {
+      return bootVersion;
+   }
+
+   public String getGroupId()
+   {
+      return groupId;
+   }
+
+   public String getArtifactId()
+   {
+      return artifactId;
+   }
+
+   public String getVersion()
+   {
+      return version;
+   }
+
+   public String getPackageName()
+   {
+      return packageName;
+   }
+
+   public List<String> getDependencies()
+   {
+      return dependencies;
+   }
+
+   /**
+    * Returns the query string expected by the {@code /starter.zip} endpoint of the starter service.
+    */
+   public String toQueryString()
+   {
+      CollectionStringBuffer csbSpringBoot = new CollectionStringBuffer(",");
+      for (String dependency : dependencies)
+      {
+         csbSpringBoot.append(dependency);
+      }
+      return String.format("bootVersion=%s&groupId=%s&artifactId=%s&version=%s&packageName=%s&dependencies=%s",
+               bootVersion, groupId, artifactId, version, packageName, csbSpringBoot.toString());
+   }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.commands.setup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.configuration.Configuration;
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.forge.addon.dependencies.Dependency;
+import org.jboss.forge.addon.dependencies.DependencyMetadata;
+import org.jboss.forge.addon.dependencies.DependencyQuery;
+import org.jboss.forge.addon.dependencies.DependencyRepository;
+import org.jboss.forge.addon.dependencies.DependencyResolver;
+import org.jboss.forge.addon.dependencies.builder.CoordinateBuilder;
+import org.jboss.forge.addon.dependencies.builder.DependencyQueryBuilder;
+import org.jboss.forge.addon.springboot.SpringBootFacet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the parent and the dependencies of a new Spring Boot project into the local Maven repository, in parallel,
+ * so that the first build of the project doesn't have to download them. The dependencies are the ones of the generated
+ * pom, those without a version get the one managed by the Spring Boot BOM, and those it doesn't manage either are
+ * skipped.
+ */
+@Singleton
+public class StarterWarmup
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(StarterWarmup.class);
+
+   private static final String PARENT_ARTIFACT = "spring-boot-starter-parent";
+   private static final String BOM_ARTIFACT = "spring-boot-dependencies";
+   private static final int DEFAULT_THREADS = 4;
+
+   @Inject
+   private DependencyResolver resolver;
+
+   @Inject
+   private Configuration configuration;
+
+   /**
+    * Resolves the parent of the given Spring Boot version and the given dependencies of the project along with their
+    * transitive dependencies, returning the time spent on each of them.
+    */
+   public List<Timing> warmup(String bootVersion, Collection<Dependency> dependencies) throws InterruptedException
+   {
+      final List<Timing> timings = new ArrayList<>(dependencies.size() + 1);
+      final Coordinate parent = CoordinateBuilder.create().setGroupId(SpringBootFacet.SPRING_BOOT_GROUP_ID)
+               .setArtifactId(PARENT_ARTIFACT).setVersion(bootVersion).setPackaging("pom");
+      final Coordinate bom = CoordinateBuilder.create(parent).setArtifactId(BOM_ARTIFACT);
+
+      // the parent first, the versions of the dependencies come from its BOM
+      final long start = System.currentTimeMillis();
+      final Map<String, String> managedVersions = new HashMap<>();
+      try
+      {
+         resolver.resolveArtifact(query(parent));
+         final DependencyMetadata metadata = resolver.resolveDependencyMetadata(query(bom));
+         for (Dependency managed : metadata.getManagedDependencies())
+         {
+            final Coordinate coordinate = managed.getCoordinate();
+            managedVersions.put(coordinate.getGroupId() + ":" + coordinate.getArtifactId(), coordinate.getVersion());
+         }
+         timings.add(new Timing(parent.toString(), System.currentTimeMillis() - start, 1, null));
+      }
+      catch (RuntimeException e)
+      {
+         LOG.warn("Couldn't resolve " + parent, e);
+         timings.add(new Timing(parent.toString(), System.currentTimeMillis() - start, 0, e.toString()));
+         return timings;
+      }
+
+      final int threads = Math.max(1, Math.min(dependencies.size(),
+               configuration.getInt("springboot.warmup.threads", DEFAULT_THREADS)));
+      final ExecutorService pool = Executors.newFixedThreadPool(threads);
+      try
+      {
+         final List<Future<Timing>> results = new ArrayList<>(dependencies.size());
+         for (Dependency dependency : dependencies)
+         {
+            final Coordinate declared = dependency.getCoordinate();
+            final String key = declared.getGroupId() + ":" + declared.getArtifactId();
+            String version = declared.getVersion();
+            if (version == null || version.contains("${"))
+            {
+               version = managedVersions.get(key);
+            }
+            if (version == null)
+            {
+               // managed elsewhere, e.g. by another BOM, resolving it at a guessed version would be meaningless
+               timings.add(Timing.skipped(key, "no version managed by " + BOM_ARTIFACT));
+               continue;
+            }
+            final Coordinate coordinate = CoordinateBuilder.create(declared).setVersion(version);
+            results.add(pool.submit(() -> resolve(coordinate)));
+         }
+         for (Future<Timing> result : results)
+         {
+            try
+            {
+               timings.add(result.get());
+            }
+            catch (ExecutionException e)
+            {
+               // resolve reports its own failures
+               throw new IllegalStateException(e.getCause());
+            }
+         }
+      }
+      finally
+      {
+         pool.shutdownNow();
+      }
+      return timings;
+   }
+
+   private Timing resolve(Coordinate coordinate)
+   {
+      final long start = System.currentTimeMillis();
+      try
+      {
+         final int artifacts = resolver.resolveDependencies(query(coordinate)).size();
+         return new Timing(coordinate.toString(), System.currentTimeMillis() - start, artifacts, null);
+      }
+      catch (RuntimeException e)
+      {
+         LOG.warn("Couldn't resolve " + coordinate, e);
+         return new Timing(coordinate.toString(), System.currentTimeMillis() - start, 0, e.toString());
+      }
+   }
+
+   /**
+    * Queries the configured "springboot.maven.mirror" repository if any, the repositories of the Maven settings
+    * otherwise.
+    */
+   private DependencyQuery query(Coordinate coordinate)
+   {
+      final DependencyQueryBuilder query = DependencyQueryBuilder.create(coordinate);
+      final String mirror = configuration.getString("springboot.maven.mirror");
+      if (mirror != null)
+      {
+         query.setRepositories(new DependencyRepository("springboot-mirror", mirror));
+      }
+      return query;
+   }
+
+   /**
+    * The time spent resolving an artifact and its dependencies. An artifact that failed to resolve, or was skipped,
+    * has an error.
+    */
+   public static class Timing
+   {
+      private final String coordinate;
+      private final long millis;
+      private final int artifacts;
+      private final String error;
+      private final boolean skipped;
+
+      Timing(String coordinate, long millis, int artifacts, String error)
+      {
+         this(coordinate, millis, artifacts, error, false);
+      }
+
+      private Timing(String coordinate, long millis, int artifacts, String error, boolean skipped)
+      {
+         this.coordinate = coordinate;
+         this.millis = millis;
+         this.artifacts = artifacts;
+         this.error = error;
+         this.skipped = skipped;
+      }
+
+      static Timing skipped(String coordinate, String reason)
+      {
+         return new Timing(coordinate, 0, 0, reason, true);
+      }
+
+      public String getCoordinate()
+      {
+         return coordinate;
+      }
+
+      public long getMillis()
+      {
+         return millis;
+      }
+
+      public int getArtifacts()
+      {
+         return artifacts;
+      }
+
+      /**
+       * Returns whether the artifact wasn't resolved at all, see {@link #getError()} for why.
+       */
+      public boolean isSkipped()
+      {
+         return skipped;
+      }
+
+      /**
+       * Returns why the artifact couldn't be resolved, or <tt>null</tt> if it was.
+       */
+      public String getError()
+      {
+         return error;
+      }
+
+      @Override
+      public String toString()
+      {
+         if (skipped)
+         {
+            return String.format("%s skipped: %s", coordinate, error);
+         }
+         return error != null ? String.format("%s failed after %d ms: %s", coordinate, millis, error)
+                  : String.format("%s resolved in %d ms (%d artifacts)", coordinate, millis, artifacts);
+      }
+   }
+}
@@ -6,6 +6,9 @@
  */
 package org.jboss.forge.addon.springboot.dto;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
@@ -22,6 +25,16 @@ public class SpringBootDependencyDTO
    private String artifactId;
    private String version;
 
+   // range of the Spring Boot versions the dependency is available for, e.g. [1.3.0.RELEASE,1.5.0.M1)
+   private String versionRange;
+   // whether the dependency is a Spring Boot starter
+   private boolean starter = true;
+   private String scope;
+   // id of the bill of materials managing the version of the dependency, e.g. cloud-bom
+   private String bom;
+   // facets of the project the dependency brings in, e.g. web
+   private List<String> facets = Collections.emptyList();
+
    public SpringBootDependencyDTO()
    {
    }
@@ -114,6 +127,56 @@ public class SpringBootDependencyDTO
       this.version = version;
    }
 
+   public String getVersionRange()
+   {
+      return versionRange;
+   }
+
+   public void setVersionRange(String versionRange)
+   {
+      this.versionRange = versionRange;
+   }
+
+   public boolean isStarter()
+   {
+      return starter;
+   }
+
+   public void setStarter(boolean starter)
+   {
+      this.starter = starter;
+   }
+
+   public String getScope()
+   {
+      return scope;
+   }
+
+   public void setScope(String scope)
+   {
+      this.scope = scope;
+   }
+
+   public String getBom()
+   {
+      return bom;
+   }
+
+   public void setBom(String bom)
+   {
+      this.bom = bom;
+   }
+
+   public List<String> getFacets()
+   {
+      return facets;
+   }
+
+   public void setFacets(List<String> facets)
+   {
+      this.facets = facets;
+   }
+
    public void setMavenCoord(String groupId, String artifactId, String version)
    {
       setGroupId(groupId);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Describes a Spring Boot project to generate, as listed in the manifest of the batch setup command.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpringBootProjectDTO
+{
+
+   private String groupId;
+   private String artifactId;
+   private String version = "1.0.0-SNAPSHOT";
+   private String packageName;
+   private String bootVersion;
+   private List<String> dependencies = new ArrayList<>();
+   private Integer port;
+   private boolean staticContent;
+
+   public String getGroupId()
+   {
+      return groupId;
+   }
+
+   public void setGroupId(String groupId)
+   {
+      this.groupId = groupId;
+   }
+
+   public String getArtifactId()
+   {
+      return artifactId;
+   }
+
+   public void setArtifactId(String artifactId)
+   {
+      this.artifactId = artifactId;
+   }
+
+   public String getVersion()
+   {
+      return version;
+   }
+
+   public void setVersion(String version)
+   {
+      this.version = version;
+   }
+
+   public String getPackageName()
+   {
+      return packageName != null ? packageName : groupId;
+   }
+
+   public void setPackageName(String packageName)
+   {
+      this.packageName = packageName;
+   }
+
+   public String getBootVersion()
+   {
+      return bootVersion;
+   }
+
+   public void setBootVersion(String bootVersion)
+   {
+      this.bootVersion = bootVersion;
+   }
+
+   public List<String> getDependencies()
+   {
+      return dependencies;
+   }
+
+   public void setDependencies(List<String> dependencies)
+   {
+      this.dependencies = dependencies != null ? dependencies : new ArrayList<>();
+   }
+
+   public Integer getPort()
+   {
+      return port;
+   }
+
+   public void setPort(Integer port)
+   {
+      this.port = port;
+   }
+
+   public boolean isStaticContent()
+   {
+      return staticContent;
+   }
+
+   public void setStaticContent(boolean staticContent)
+   {
+      this.staticContent = staticContent;
+   }
+}
@@ -12,12 +12,15 @@ import org.jboss.forge.addon.projects.AbstractProjectType;
 import org.jboss.forge.addon.projects.ProjectFacet;
 import org.jboss.forge.addon.projects.facets.*;
 import org.jboss.forge.addon.projects.stacks.Stack;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
 import org.jboss.forge.addon.springboot.commands.setup.SetupProjectCommand;
 import org.jboss.forge.addon.ui.wizard.UIWizardStep;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
+
 public class SpringBootProjectType extends AbstractProjectType
 {
    private static final List<Class<? extends ProjectFacet>> REQUIRED_FACETS = new ArrayList<>(7);
@@ -32,6 +35,9 @@ public class SpringBootProjectType extends AbstractProjectType
       REQUIRED_FACETS.add(JavaCompilerFacet.class);
    }
 
+   @Inject
+   private SpringBootCatalogService catalogService;
+
    @Override
    public boolean supports(Stack stack)
    {
@@ -59,6 +65,8 @@ public class SpringBootProjectType extends AbstractProjectType
    @Override
    public Class<? extends UIWizardStep> getSetupFlow()
    {
+      // the setup wizard is about to be shown, make sure the catalog is on its way
+      catalogService.prefetch();
       return SetupProjectCommand.class;
    }
 
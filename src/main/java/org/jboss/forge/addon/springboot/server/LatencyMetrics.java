@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.server;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency statistics of an endpoint: request and error counts, mean and max latency over the whole lifetime, and
+ * percentiles over the most recent requests.
+ */
+public class LatencyMetrics
+{
+   /**
+    * Number of recent samples the percentiles are computed from
+    */
+   private static final int SAMPLES = 1024;
+
+   private final String name;
+   private final long[] samples = new long[SAMPLES];
+   private long count;
+   private long errors;
+   private long total;
+   private long max;
+
+   public LatencyMetrics(String name)
+   {
+      this.name = name;
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   /**
+    * Records a request that took the given time in nanoseconds.
+    */
+   public synchronized void record(long nanos, boolean error)
+   {
+      samples[(int) (count % SAMPLES)] = nanos;
+      count++;
+      total += nanos;
+      max = Math.max(max, nanos);
+      if (error)
+      {
+         errors++;
+      }
+   }
+
+   public synchronized long getCount()
+   {
+      return count;
+   }
+
+   public synchronized long getErrors()
+   {
+      return errors;
+   }
+
+   /**
+    * Returns the mean latency in milliseconds.
+    */
+   public synchronized double getMeanMillis()
+   {
+      return count == 0 ? 0 : toMillis(total / count);
+   }
+
+   /**
+    * Returns the max latency in milliseconds.
+    */
+   public synchronized double getMaxMillis()
+   {
+      return toMillis(max);
+   }
+
+   /**
+    * Returns the given percentile (between 0 and 100) of the recent latencies in milliseconds.
+    */
+   public double getPercentileMillis(double percentile)
+   {
+      final long[] sorted;
+      synchronized (this)
+      {
+         sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLES));
+      }
+      if (sorted.length == 0)
+      {
+         return 0;
+      }
+      Arrays.sort(sorted);
+      final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+   }
+
+   private static double toMillis(long nanos)
+   {
+      return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.format("%s: %d requests, %d errors, mean %.1f ms, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms",
+               name, getCount(), getErrors(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95),
+               getPercentileMillis(99), getMaxMillis());
+   }
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+import org.jboss.forge.addon.configuration.Configuration;
+import org.jboss.forge.addon.springboot.catalog.Catalog;
+import org.jboss.forge.addon.springboot.catalog.SpringBootCatalogService;
+import org.jboss.forge.addon.springboot.commands.setup.LocalProjectGenerator;
+import org.jboss.forge.addon.springboot.commands.setup.StarterArchiveCache;
+import org.jboss.forge.addon.springboot.commands.setup.StarterProjectGenerator;
+import org.jboss.forge.addon.springboot.commands.setup.StarterRequest;
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server answering the requests of the setup like start.spring.io does: {@code /} returns the metadata of
+ * the bundled catalog and {@code /starter.zip} an archive generated by the {@link LocalProjectGenerator}. Generated
+ * archives are kept in memory, and the latency of each endpoint is available from {@code /metrics}.
+ */
+@Singleton
+public class StarterServer
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(StarterServer.class);
+
+   public static final int DEFAULT_PORT = 8090;
+   private static final int DEFAULT_CACHE_SIZE = 64;
+
+   private static final String DEFAULT_GROUP_ID = "com.example";
+   private static final String DEFAULT_ARTIFACT_ID = "demo";
+   private static final String DEFAULT_VERSION = "0.0.1-SNAPSHOT";
+
+   private static final String JSON = "application/json";
+   private static final String ZIP = "application/zip";
+
+   @Inject
+   private SpringBootCatalogService catalogService;
+
+   @Inject
+   private LocalProjectGenerator localProjectGenerator;
+
+   @Inject
+   private Configuration configuration;
+
+   private final LatencyMetrics metadataMetrics = new LatencyMetrics("metadata");
+   private final LatencyMetrics starterMetrics = new LatencyMetrics("starter.zip");
+   private final AtomicLong cacheHits = new AtomicLong();
+   private final AtomicLong cacheMisses = new AtomicLong();
+
+   private volatile int cacheSize = DEFAULT_CACHE_SIZE;
+   // the handlers still running once the server is stopped keep using it, so it's cleared rather than dropped
+   private final Map<String, byte[]> archives = Collections.synchronizedMap(
+            new LinkedHashMap<String, byte[]>(16, 0.75f, true)
+            {
+               private static final long serialVersionUID = 1L;
+
+               @Override
+               protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest)
+               {
+                  return size() > cacheSize;
+               }
+            });
+
+   private HttpServer server;
+   private ExecutorService executor;
+   private byte[] metadata;
+   private String metadataETag;
+   private Set<String> knownDependencies;
+
+   /**
+    * Starts the server on the given port, serving the requests on the given number of threads.
+    */
+   public synchronized void start(int port, int threads) throws IOException
+   {
+      if (server != null)
+      {
+         throw new IllegalStateException("Starter server is already running on " + getURL());
+      }
+      initMetadata();
+      cacheSize = configuration.getInt("springboot.server.cachesize", DEFAULT_CACHE_SIZE);
+
+      final AtomicInteger counter = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(threads, r -> {
+         Thread thread = new Thread(r, "spring-boot-starter-server-" + counter.incrementAndGet());
+         thread.setDaemon(true);
+         return thread;
+      });
+      server = HttpServer.create(new InetSocketAddress(port), 0);
+      server.setExecutor(executor);
+      server.createContext("/", this::handle);
+      server.start();
+      LOG.info("Starter server listening on {}", getURL());
+   }
+
+   /**
+    * Stops the server, letting the requests being served complete for at most a second.
+    */
+   public synchronized void stop()
+   {
+      if (server != null)
+      {
+         server.stop(1);
+         executor.shutdownNow();
+         LOG.info("Starter server stopped, {} / {}", metadataMetrics, starterMetrics);
+         server = null;
+         executor = null;
+         archives.clear();
+      }
+   }
+
+   /**
+    * Stops the server when the addon is stopped
+    */
+   public void onShutdown(@Observes @Local PreShutdown event)
+   {
+      stop();
+   }
+
+   public synchronized boolean isRunning()
+   {
+      return server != null;
+   }
+
+   /**
+    * Returns the URL to set as "springboot.starterurl" to use this server
+    */
+   public synchronized String getURL()
+   {
+      return server == null ? null : "http://localhost:" + server.getAddress().getPort();
+   }
+
+   public List<LatencyMetrics> getMetrics()
+   {
+      List<LatencyMetrics> metrics = new ArrayList<>(2);
+      metrics.add(metadataMetrics);
+      metrics.add(starterMetrics);
+      return metrics;
+   }
+
+   public long getCacheHits()
+   {
+      return cacheHits.get();
+   }
+
+   public long getCacheMisses()
+   {
+      return cacheMisses.get();
+   }
+
+   private void handle(HttpExchange exchange) throws IOException
+   {
+      final long start = System.nanoTime();
+      final String path = exchange.getRequestURI().getPath();
+      LatencyMetrics metrics = null;
+      int status;
+      try
+      {
+         if (!"GET".equals(exchange.getRequestMethod()))
+         {
+            status = send(exchange, 405, "text/plain", "Only GET is supported".getBytes(StandardCharsets.UTF_8));
+         }
+         else if ("/".equals(path))
+         {
+            metrics = metadataMetrics;
+            status = sendMetadata(exchange);
+         }
+         else if (StarterProjectGenerator.STARTER_ZIP_URL.equals(path))
+         {
+            metrics = starterMetrics;
+            status = sendStarter(exchange);
+         }
+         else if ("/metrics".equals(path))
+         {
+            status = send(exchange, 200, JSON, metricsToJson().toString().getBytes(StandardCharsets.UTF_8));
+         }
+         else
+         {
+            status = send(exchange, 404, "text/plain", ("No such resource " + path).getBytes(StandardCharsets.UTF_8));
+         }
+      }
+      catch (IOException | RuntimeException e)
+      {
+         LOG.warn("Error serving " + exchange.getRequestURI(), e);
+         status = 500;
+         if (exchange.getResponseCode() == -1)
+         {
+            send(exchange, status, "text/plain", String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+         }
+      }
+      finally
+      {
+         exchange.close();
+      }
+      if (metrics != null)
+      {
+         metrics.record(System.nanoTime() - start, status >= 400);
+      }
+   }
+
+   private int sendMetadata(HttpExchange exchange) throws IOException
+   {
+      exchange.getResponseHeaders().set("ETag", metadataETag);
+      if (metadataETag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+      {
+         exchange.sendResponseHeaders(304, -1);
+         return 304;
+      }
+      return send(exchange, 200, JSON, metadata);
+   }
+
+   private int sendStarter(HttpExchange exchange) throws IOException
+   {
+      final Map<String, List<String>> params = parseQuery(exchange.getRequestURI().getRawQuery());
+      final Set<String> dependencies = new LinkedHashSet<>();
+      for (String value : params.getOrDefault("dependencies", Collections.emptyList()))
+      {
+         for (String id : value.split(","))
+         {
+            if (!id.trim().isEmpty())
+            {
+               dependencies.add(id.trim());
+            }
+         }
+      }
+      for (String id : dependencies)
+      {
+         if (!knownDependencies.contains(id))
+         {
+            return send(exchange, 400, "text/plain", ("Unknown dependency: " + id).getBytes(StandardCharsets.UTF_8));
+         }
+      }
+
+      final String groupId = param(params, "groupId", DEFAULT_GROUP_ID);
+      final StarterRequest request = new StarterRequest(param(params, "bootVersion", catalogService.getDefaultVersion()),
+               groupId, param(params, "artifactId", DEFAULT_ARTIFACT_ID), param(params, "version", DEFAULT_VERSION),
+               param(params, "packageName", groupId), dependencies);
+      final String key = StarterArchiveCache.key("local", request.getBootVersion(), request.getGroupId(),
+               request.getArtifactId(), request.getVersion(), request.getPackageName(), request.getDependencies());
+
+      byte[] archive = archives.get(key);
+      if (archive == null)
+      {
+         cacheMisses.incrementAndGet();
+         final ByteArrayOutputStream out = new ByteArrayOutputStream();
+         localProjectGenerator.generate(request).writeZip(out);
+         archive = out.toByteArray();
+         archives.put(key, archive);
+      }
+      else
+      {
+         cacheHits.incrementAndGet();
+      }
+      exchange.getResponseHeaders().set("Content-Disposition",
+               "attachment; filename=\"" + request.getArtifactId() + ".zip\"");
+      return send(exchange, 200, ZIP, archive);
+   }
+
+   private static int send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException
+   {
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody())
+      {
+         out.write(body);
+      }
+      return status;
+   }
+
+   private static String param(Map<String, List<String>> params, String name, String defaultValue)
+   {
+      final List<String> values = params.get(name);
+      return values == null || values.get(0).isEmpty() ? defaultValue : values.get(0);
+   }
+
+   private static Map<String, List<String>> parseQuery(String query) throws UnsupportedEncodingException
+   {
+      final Map<String, List<String>> params = new LinkedHashMap<>();
+      if (query == null)
+      {
+         return params;
+      }
+      for (String pair : query.split("&"))
+      {
+         final int eq = pair.indexOf('=');
+         final String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+         final String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+         params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+      }
+      return params;
+   }
+
+   /**
+    * Builds the metadata of the bundled catalog, in the format of the start.spring.io root endpoint. The catalog
+    * service's remote catalog isn't used as it may well be this very server. The dependencies the local generator
+    * can't render, such as the ones managed by a bill of materials, aren't advertised and are refused as unknown.
+    */
+   private void initMetadata() throws IOException
+   {
+      final List<SpringBootDependencyDTO> dependencies;
+      try
+      {
+         dependencies = catalogService.getBundledDependencies();
+      }
+      catch (Exception e)
+      {
+         throw new IOException("Couldn't load the bundled catalog", e);
+      }
+
+      final Map<String, JsonArrayBuilder> groups = new LinkedHashMap<>();
+      final Set<String> ids = new HashSet<>();
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         final List<String> problems = localProjectGenerator.checkDependencies(Collections.singleton(dto.getId()));
+         if (!problems.isEmpty())
+         {
+            LOG.debug("Not serving {}: {}", dto.getId(), problems);
+            continue;
+         }
+         ids.add(dto.getId());
+         groups.computeIfAbsent(dto.getGroup(), g -> Json.createArrayBuilder()).add(Json.createObjectBuilder()
+                  .add("id", dto.getId())
+                  .add("name", nullToEmpty(dto.getName()))
+                  .add("description", nullToEmpty(dto.getDescription())));
+      }
+      final JsonArrayBuilder groupValues = Json.createArrayBuilder();
+      groups.forEach((name, values) -> groupValues.add(Json.createObjectBuilder().add("name", name)
+               .add("values", values)));
+
+      final JsonArrayBuilder versions = Json.createArrayBuilder();
+      for (String version : catalogService.getVersions())
+      {
+         versions.add(Json.createObjectBuilder().add("id", version).add("name", version));
+      }
+
+      final JsonObject json = Json.createObjectBuilder()
+               .add("dependencies", Json.createObjectBuilder().add("type", "hierarchical-multi-select")
+                        .add("values", groupValues))
+               .add("bootVersion", Json.createObjectBuilder().add("type", "single-select")
+                        .add("default", catalogService.getDefaultVersion()).add("values", versions))
+               .add("groupId", Json.createObjectBuilder().add("type", "text").add("default", DEFAULT_GROUP_ID))
+               .add("artifactId", Json.createObjectBuilder().add("type", "text").add("default", DEFAULT_ARTIFACT_ID))
+               .add("version", Json.createObjectBuilder().add("type", "text").add("default", DEFAULT_VERSION))
+               .build();
+      metadata = json.toString().getBytes(StandardCharsets.UTF_8);
+      metadataETag = "\"" + Integer.toHexString(json.hashCode()) + "\"";
+      knownDependencies = Collections.unmodifiableSet(ids);
+   }
+
+   private static String nullToEmpty(String value)
+   {
+      return value == null ? "" : value;
+   }
+
+   private JsonObject metricsToJson()
+   {
+      final JsonObjectBuilder json = Json.createObjectBuilder();
+      for (LatencyMetrics metrics : getMetrics())
+      {
+         json.add(metrics.getName(), Json.createObjectBuilder()
+                  .add("count", metrics.getCount())
+                  .add("errors", metrics.getErrors())
+                  .add("mean", metrics.getMeanMillis())
+                  .add("p50", metrics.getPercentileMillis(50))
+                  .add("p95", metrics.getPercentileMillis(95))
+                  .add("p99", metrics.getPercentileMillis(99))
+                  .add("max", metrics.getMaxMillis()));
+      }
+      json.add("cache", Json.createObjectBuilder()
+               .add("hits", cacheHits.get())
+               .add("misses", cacheMisses.get())
+               .add("size", archives.size()));
+      try
+      {
+         final Catalog catalog = catalogService.getBundledCatalog();
+         json.add("catalog", Json.createObjectBuilder()
+                  .add("dependencies", catalog.size())
+                  .add("heapBytes", catalog.getFootprint()));
+      }
+      catch (Exception e)
+      {
+         LOG.debug("Couldn't load the bundled catalog", e);
+      }
+      return json.build();
+   }
+}
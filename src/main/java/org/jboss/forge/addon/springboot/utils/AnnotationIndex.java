@@ -0,0 +1,261 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The annotations used by the Java sources of a source folder, such as {@code src/main/java}, kept from one command to
+ * the next. A source is only read again when its modification time or size changed, and the file found for an
+ * annotation is remembered, so that finding the {@code @SpringBootApplication} class again only checks that file.
+ * <p/>
+ * The sources are scanned for annotations rather than parsed, skipping comments and literals, and the annotations are
+ * known by their simple name.
+ */
+public final class AnnotationIndex
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(AnnotationIndex.class);
+
+   // the indexes of the projects used last, the sources of a project being a few thousands at most
+   private static final int MAX_INDEXES = 16;
+   private static final Map<File, AnnotationIndex> INDEXES = Collections
+            .synchronizedMap(new LinkedHashMap<File, AnnotationIndex>(16, 0.75f, true)
+            {
+               private static final long serialVersionUID = 1L;
+
+               @Override
+               protected boolean removeEldestEntry(Map.Entry<File, AnnotationIndex> eldest)
+               {
+                  return size() > MAX_INDEXES;
+               }
+            });
+
+   private final File root;
+   private final Map<File, Source> sources = new HashMap<>();
+   // the file last found for an annotation
+   private final Map<String, File> found = new HashMap<>();
+
+   private AnnotationIndex(File root)
+   {
+      this.root = root;
+   }
+
+   /**
+    * Returns the index of the given source folder. The indexes of the source folders that were deleted meanwhile, such
+    * as those of temporary projects, are dropped.
+    */
+   public static AnnotationIndex of(File root)
+   {
+      synchronized (INDEXES)
+      {
+         INDEXES.values().removeIf(index -> !index.root.isDirectory());
+         return INDEXES.computeIfAbsent(root.toPath().toAbsolutePath().normalize().toFile(), AnnotationIndex::new);
+      }
+   }
+
+   /**
+    * Returns the source annotated with the given annotation, or <tt>null</tt> if there is none. The file found last
+    * time is returned as long as it still has the annotation, without looking at the other sources.
+    */
+   public synchronized File findFirst(String annotation)
+   {
+      final File last = found.get(annotation);
+      if (last != null && refresh(last).annotations.contains(annotation))
+      {
+         return last;
+      }
+      final List<File> files = find(annotation);
+      return files.isEmpty() ? null : files.get(0);
+   }
+
+   /**
+    * Returns the sources using the given annotation, in path order, reading again those that changed since the last
+    * call.
+    */
+   public synchronized List<File> find(String annotation)
+   {
+      final long start = System.currentTimeMillis();
+      final Set<File> seen = new HashSet<>();
+      final List<File> files = new ArrayList<>();
+      if (root.isDirectory())
+      {
+         try
+         {
+            Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>()
+            {
+               @Override
+               public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+               {
+                  if (path.getFileName().toString().endsWith(".java"))
+                  {
+                     final File file = path.toFile();
+                     seen.add(file);
+                     if (refresh(file).annotations.contains(annotation))
+                     {
+                        files.add(file);
+                     }
+                  }
+                  return FileVisitResult.CONTINUE;
+               }
+            });
+         }
+         catch (IOException e)
+         {
+            throw new IllegalStateException("Couldn't list the sources of " + root, e);
+         }
+      }
+      sources.keySet().retainAll(seen);
+      Collections.sort(files);
+      if (files.isEmpty())
+      {
+         found.remove(annotation);
+      }
+      else
+      {
+         found.put(annotation, files.get(0));
+      }
+      LOG.debug("Found {} sources annotated with @{} among {} in {} ms", files.size(), annotation, seen.size(),
+               System.currentTimeMillis() - start);
+      return files;
+   }
+
+   /**
+    * Returns the package of the given source, from its folder relative to the source folder.
+    */
+   public String getPackage(File source)
+   {
+      final Path folder = root.toPath().relativize(source.getAbsoluteFile().toPath()).getParent();
+      if (folder == null)
+      {
+         return "";
+      }
+      final StringBuilder name = new StringBuilder();
+      for (Iterator<Path> it = folder.iterator(); it.hasNext();)
+      {
+         name.append(it.next());
+         if (it.hasNext())
+         {
+            name.append('.');
+         }
+      }
+      return name.toString();
+   }
+
+   private Source refresh(File file)
+   {
+      Source source = sources.get(file);
+      final long lastModified = file.lastModified();
+      final long length = file.length();
+      if (source == null || source.lastModified != lastModified || source.length != length)
+      {
+         source = new Source(lastModified, length, scan(file));
+         sources.put(file, source);
+      }
+      return source;
+   }
+
+   private static Set<String> scan(File file)
+   {
+      try
+      {
+         return scan(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+      }
+      catch (IOException e)
+      {
+         // deleted meanwhile
+         LOG.debug("Couldn't read " + file, e);
+         return Collections.emptySet();
+      }
+   }
+
+   /**
+    * Returns the simple names of the annotations used in the given source.
+    */
+   static Set<String> scan(String text)
+   {
+      final Set<String> annotations = new HashSet<>();
+      int i = 0;
+      final int length = text.length();
+      while (i < length)
+      {
+         final char c = text.charAt(i);
+         if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/')
+         {
+            final int eol = text.indexOf('\n', i);
+            i = eol < 0 ? length : eol + 1;
+         }
+         else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*')
+         {
+            final int end = text.indexOf("*/", i + 2);
+            i = end < 0 ? length : end + 2;
+         }
+         else if (c == '"' || c == '\'')
+         {
+            // a literal, up to the unescaped closing quote
+            i++;
+            while (i < length && text.charAt(i) != c && text.charAt(i) != '\n')
+            {
+               i += text.charAt(i) == '\\' ? 2 : 1;
+            }
+            i++;
+         }
+         else if (c == '@')
+         {
+            int end = ++i;
+            while (end < length && (Character.isJavaIdentifierPart(text.charAt(end)) || text.charAt(end) == '.'))
+            {
+               end++;
+            }
+            final String name = text.substring(i, end);
+            final String simpleName = name.substring(name.lastIndexOf('.') + 1);
+            if (!simpleName.isEmpty() && !"interface".equals(name))
+            {
+               annotations.add(simpleName);
+            }
+            i = end;
+         }
+         else
+         {
+            i++;
+         }
+      }
+      return annotations.isEmpty() ? Collections.emptySet() : annotations;
+   }
+
+   private static class Source
+   {
+      private final long lastModified;
+      private final long length;
+      private final Set<String> annotations;
+
+      Source(long lastModified, long length, Set<String> annotations)
+      {
+         this.lastModified = lastModified;
+         this.length = length;
+         this.annotations = annotations;
+      }
+   }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.jboss.forge.addon.resource.FileResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The configuration files changed by the command being executed on the current thread, kept in memory and written once
+ * when the outermost command completes instead of on each change. A file changed on disk in the meantime, e.g. by a
+ * generator extracting a project, is read again and the pending changes are applied to its new content.
+ */
+public final class ApplicationPropertiesSession
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(ApplicationPropertiesSession.class);
+
+   private static final ThreadLocal<ApplicationPropertiesSession> CURRENT = new ThreadLocal<>();
+
+   private final Map<File, Entry> files = new LinkedHashMap<>();
+   private int depth;
+
+   private ApplicationPropertiesSession()
+   {
+   }
+
+   /**
+    * Opens a session on the current thread, or joins the one already opened by an enclosing command.
+    */
+   public static void begin()
+   {
+      ApplicationPropertiesSession session = CURRENT.get();
+      if (session == null)
+      {
+         session = new ApplicationPropertiesSession();
+         CURRENT.set(session);
+      }
+      session.depth++;
+   }
+
+   /**
+    * Leaves the session of the current thread, writing the changed files when leaving the outermost one.
+    */
+   public static void end()
+   {
+      final ApplicationPropertiesSession session = CURRENT.get();
+      if (session != null && --session.depth == 0)
+      {
+         CURRENT.remove();
+         session.flush();
+      }
+   }
+
+   /**
+    * Returns the session of the current thread, or <tt>null</tt> if none is open.
+    */
+   public static ApplicationPropertiesSession current()
+   {
+      return CURRENT.get();
+   }
+
+   /**
+    * Applies the given changes to the in-memory model of the given file, to be written when the session ends.
+    *
+    * @return whether the content of the file changed
+    */
+   public boolean update(FileResource<?> resource, Consumer<ConfigFile> changes)
+   {
+      final File file = resource.getUnderlyingResourceObject();
+      Entry entry = files.get(file);
+      if (entry == null || entry.isModifiedOnDisk())
+      {
+         final Entry reloaded = new Entry(resource);
+         if (entry != null)
+         {
+            LOG.debug("{} changed on disk, applying {} pending changes again", file, entry.changes.size());
+            reloaded.changes.addAll(entry.changes);
+            reloaded.changes.forEach(change -> change.accept(reloaded.properties));
+         }
+         entry = reloaded;
+         files.put(file, entry);
+      }
+      final String before = entry.properties.getText();
+      changes.accept(entry.properties);
+      entry.changes.add(changes);
+      return !before.equals(entry.properties.getText());
+   }
+
+   /**
+    * Writes the files whose content changed.
+    *
+    * @return the number of files written
+    */
+   int flush()
+   {
+      int written = 0;
+      for (Entry entry : files.values())
+      {
+         if (entry.isModifiedOnDisk())
+         {
+            final Entry reloaded = new Entry(entry.resource);
+            entry.changes.forEach(change -> change.accept(reloaded.properties));
+            entry = reloaded;
+         }
+         if (entry.properties.isChanged())
+         {
+            entry.write();
+            written++;
+         }
+      }
+      files.clear();
+      return written;
+   }
+
+   private static class Entry
+   {
+      private final FileResource<?> resource;
+      private final File file;
+      private final ConfigFile properties;
+      private final List<Consumer<ConfigFile>> changes = new ArrayList<>();
+      private final long lastModified;
+      private final long length;
+
+      Entry(FileResource<?> resource)
+      {
+         this.resource = resource;
+         this.file = resource.getUnderlyingResourceObject();
+         this.lastModified = file.lastModified();
+         this.length = file.length();
+         if (!resource.exists())
+         {
+            properties = ConfigFile.parse(file.getName(), "");
+            return;
+         }
+         try (InputStream in = resource.getResourceInputStream())
+         {
+            properties = ConfigFile.read(file.getName(), in);
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Couldn't read existing " + resource.getFullyQualifiedName(), e);
+         }
+      }
+
+      boolean isModifiedOnDisk()
+      {
+         return file.lastModified() != lastModified || file.length() != length;
+      }
+
+      void write()
+      {
+         try (OutputStream out = resource.getResourceOutputStream())
+         {
+            properties.write(out);
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Couldn't save " + resource.getFullyQualifiedName(), e);
+         }
+      }
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A Spring Boot configuration file edited in place, either a {@link PropertiesFile} or a {@link YamlConfigFile}, its
+ * properties being addressed by their dotted name in both cases.
+ */
+public interface ConfigFile
+{
+   /**
+    * Returns the value of the given property, or <tt>null</tt>.
+    */
+   String get(String key);
+
+   /**
+    * Sets the value of the given property, leaving the rest of the file as it is.
+    */
+   void set(String key, String value);
+
+   default void setAll(Map<?, ?> properties)
+   {
+      for (Map.Entry<?, ?> entry : properties.entrySet())
+      {
+         set(entry.getKey().toString(), entry.getValue().toString());
+      }
+   }
+
+   /**
+    * Removes the properties matching the given predicate.
+    */
+   void removeIf(Predicate<String> keys);
+
+   /**
+    * Returns whether the content of the file differs from the one it was read from.
+    */
+   boolean isChanged();
+
+   String getText();
+
+   void write(OutputStream out) throws IOException;
+
+   /**
+    * Reads a configuration file, as YAML if its name ends with <tt>.yml</tt> or <tt>.yaml</tt>.
+    */
+   static ConfigFile read(String name, InputStream in) throws IOException
+   {
+      return isYaml(name) ? YamlConfigFile.read(in) : PropertiesFile.read(in);
+   }
+
+   static ConfigFile parse(String name, String text)
+   {
+      return isYaml(name) ? YamlConfigFile.parse(text) : PropertiesFile.parse(text);
+   }
+
+   static boolean isYaml(String name)
+   {
+      return name.endsWith(".yml") || name.endsWith(".yaml");
+   }
+}
@@ -6,19 +6,44 @@
  */
 package org.jboss.forge.addon.springboot.utils;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class IOHelper
 {
 
    /**
-    * Loads the entire stream into memory as a String and returns it.
+    * Upper cap to avoid buffers too big
+    */
+   private static final int MAX_BUFFER_SIZE = 262144;
+
+   /**
+    * Chunk size used when transferring from a non file channel, transfers stop at the end of the stream
+    */
+   private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+   /**
+    * Copy buffers are reused by each thread instead of being allocated for each copy
+    */
+   private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+
+   /**
+    * Loads the entire stream into memory as a UTF-8 String and returns it.
     * <p/>
     * <b>Notice:</b> This implementation appends a <tt>\n</tt> as line
     * terminator at the of the text.
@@ -27,29 +52,30 @@ public class IOHelper
     */
    public static String loadText(InputStream in) throws IOException
    {
-      StringBuilder builder = new StringBuilder();
-      InputStreamReader isr = new InputStreamReader(in);
+      return loadText(in, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Loads the entire stream into memory and decodes it at once with the given charset. Line terminators are
+    * normalized to <tt>\n</tt> and one is appended at the end of the text if missing.
+    * <p/>
+    * Warning, don't use for crazy big streams :)
+    */
+   public static String loadText(InputStream in, Charset charset) throws IOException
+   {
       try
       {
-         BufferedReader reader = new BufferedReader(isr);
-         while (true)
+         final ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+         copy(in, bytes, 8192, false);
+         String text = new String(bytes.toByteArray(), charset);
+         if (text.indexOf('\r') >= 0)
          {
-            String line = reader.readLine();
-            if (line != null)
-            {
-               builder.append(line);
-               builder.append("\n");
-            }
-            else
-            {
-               break;
-            }
+            text = text.replace("\r\n", "\n").replace('\r', '\n');
          }
-         return builder.toString();
+         return text.isEmpty() || text.endsWith("\n") ? text : text + "\n";
       }
       finally
       {
-         close(isr);
          close(in);
       }
    }
@@ -65,6 +91,81 @@ public class IOHelper
       close(input);
    }
 
+   /**
+    * Copies the given stream to the target file, replacing it if it already exists, and closes the stream.
+    *
+    * @return the number of copied bytes
+    */
+   public static long copyAndCloseInput(InputStream input, Path target) throws IOException
+   {
+      try
+      {
+         return copy(input, target);
+      }
+      finally
+      {
+         close(input);
+      }
+   }
+
+   /**
+    * Copies the given stream to the target file, replacing it if it already exists. The bytes are transferred by the
+    * file channel of the target, straight from the channel of the source when it is a file too.
+    *
+    * @return the number of copied bytes
+    */
+   public static long copy(InputStream input, Path target) throws IOException
+   {
+      try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+               StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         if (input instanceof FileInputStream)
+         {
+            final FileChannel in = ((FileInputStream) input).getChannel();
+            final long size = in.size();
+            long position = in.position();
+            while (position < size)
+            {
+               position += in.transferTo(position, size - position, out);
+            }
+            final long total = size - in.position();
+            in.position(size);
+            return total;
+         }
+
+         final ReadableByteChannel in = Channels.newChannel(input);
+         long total = 0;
+         long transferred;
+         while ((transferred = out.transferFrom(in, total, TRANSFER_CHUNK_SIZE)) > 0)
+         {
+            total += transferred;
+         }
+         return total;
+      }
+   }
+
+   /**
+    * Copies the given file to the given stream through the file channel of the source.
+    *
+    * @return the number of copied bytes
+    */
+   public static long copy(Path source, OutputStream output) throws IOException
+   {
+      try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ))
+      {
+         final WritableByteChannel out = output instanceof FileOutputStream
+                  ? ((FileOutputStream) output).getChannel() : Channels.newChannel(output);
+         final long size = in.size();
+         long position = 0;
+         while (position < size)
+         {
+            position += in.transferTo(position, size - position, out);
+         }
+         output.flush();
+         return size;
+      }
+   }
+
    public static int copy(final InputStream input, final OutputStream output, int bufferSize, boolean flushOnEachWrite)
             throws IOException
    {
@@ -84,13 +185,7 @@ public class IOHelper
          }
       }
 
-      if (bufferSize > 262144)
-      {
-         // upper cap to avoid buffers too big
-         bufferSize = 262144;
-      }
-
-      final byte[] buffer = new byte[bufferSize];
+      final byte[] buffer = getBuffer(bufferSize);
       int n = input.read(buffer);
       int total = 0;
       while (-1 != n)
@@ -111,6 +206,38 @@ public class IOHelper
       return total;
    }
 
+   /**
+    * Returns the copy buffer of the current thread, growing it to the requested size if needed.
+    */
+   private static byte[] getBuffer(int bufferSize)
+   {
+      // upper cap to avoid buffers too big, and never go empty so that reads make progress
+      bufferSize = Math.max(1, Math.min(bufferSize, MAX_BUFFER_SIZE));
+      byte[] buffer = BUFFERS.get();
+      if (buffer == null || buffer.length < bufferSize)
+      {
+         buffer = new byte[bufferSize];
+         BUFFERS.set(buffer);
+      }
+      return buffer;
+   }
+
+   /**
+    * Returns a view of the given stream that isn't closed along with it, for readers closing the stream they are
+    * given when the caller still has to use it.
+    */
+   public static InputStream uncloseable(InputStream input)
+   {
+      return new FilterInputStream(input)
+      {
+         @Override
+         public void close()
+         {
+            // left to the owner of the stream
+         }
+      };
+   }
+
    /**
     * Closes the given resource if it is available, logging any closing exceptions to the given log.
     *
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Overlays files on top of an existing directory, only writing the ones whose content differs from what is already on
+ * disk (compared by size, then byte by byte) so that unchanged files keep their modification time, and records what was
+ * added, modified or left untouched.
+ */
+public class OverlayReport
+{
+   private final List<String> added = new ArrayList<>();
+   private final List<String> modified = new ArrayList<>();
+   private final List<String> unchanged = new ArrayList<>();
+
+   /**
+    * Writes the given content to the file at the given path relative to destDir unless it already holds that content.
+    */
+   public void write(File destDir, String path, byte[] content) throws IOException
+   {
+      final File target = UnzipHelper.resolveEntry(destDir, path);
+      if (!target.isFile())
+      {
+         mkdirs(destDir, target.getParentFile());
+         added.add(path);
+      }
+      else if (target.length() == content.length && sameContent(target, content))
+      {
+         unchanged.add(path);
+         return;
+      }
+      else
+      {
+         modified.add(path);
+      }
+
+      try (OutputStream out = new FileOutputStream(target))
+      {
+         out.write(content);
+      }
+   }
+
+   /**
+    * Creates the directory at the given path relative to destDir if it doesn't exist yet.
+    */
+   public void mkdir(File destDir, String path) throws IOException
+   {
+      mkdirs(destDir, UnzipHelper.resolveEntry(destDir, path));
+   }
+
+   /**
+    * Removes the files and directories this overlay added to destDir, e.g. once it failed or was cancelled; the
+    * directories are only removed when nothing else was created in them meanwhile. The modified files are left as they
+    * are.
+    */
+   public void revert(File destDir) throws IOException
+   {
+      // the directories were added before their content
+      for (int i = added.size() - 1; i >= 0; i--)
+      {
+         try
+         {
+            Files.deleteIfExists(UnzipHelper.resolveEntry(destDir, added.get(i)).toPath());
+         }
+         catch (DirectoryNotEmptyException e)
+         {
+            // keep what was created there by someone else
+         }
+      }
+      added.clear();
+   }
+
+   public List<String> getAdded()
+   {
+      return Collections.unmodifiableList(added);
+   }
+
+   public List<String> getModified()
+   {
+      return Collections.unmodifiableList(modified);
+   }
+
+   public List<String> getUnchanged()
+   {
+      return Collections.unmodifiableList(unchanged);
+   }
+
+   public boolean hasChanges()
+   {
+      return !added.isEmpty() || !modified.isEmpty();
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.format("%d added, %d modified, %d unchanged", added.size(), modified.size(), unchanged.size());
+   }
+
+   /**
+    * Creates the given directory under destDir along with its missing parents, recording each of them as added.
+    */
+   private void mkdirs(File destDir, File dir)
+   {
+      if (dir == null || dir.isDirectory())
+      {
+         return;
+      }
+      if (dir.equals(destDir))
+      {
+         dir.mkdirs();
+         return;
+      }
+      mkdirs(destDir, dir.getParentFile());
+      if (dir.mkdir())
+      {
+         added.add(destDir.toPath().relativize(dir.toPath()).toString().replace(File.separatorChar, '/') + "/");
+      }
+   }
+
+   /**
+    * Compares the file with the given content of the same size, stopping at the first difference.
+    */
+   private static boolean sameContent(File file, byte[] content) throws IOException
+   {
+      try (InputStream in = new FileInputStream(file))
+      {
+         final byte[] buffer = new byte[(int) Math.min(content.length, 8192)];
+         int offset = 0;
+         int read;
+         while (offset < content.length && (read = in.read(buffer)) != -1)
+         {
+            if (offset + read > content.length)
+            {
+               // grown meanwhile
+               return false;
+            }
+            for (int i = 0; i < read; i++)
+            {
+               if (buffer[i] != content[offset + i])
+               {
+                  return false;
+               }
+            }
+            offset += read;
+         }
+         return offset == content.length && in.read() == -1;
+      }
+   }
+}
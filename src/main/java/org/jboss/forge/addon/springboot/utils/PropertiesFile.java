@@ -0,0 +1,468 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Line oriented model of a properties file, such as the {@code application.properties} of a Spring Boot project, that
+ * keeps the comments, blank lines, order and formatting of the file: setting a property only rewrites the value of the
+ * line declaring it, or appends a line for a new one, and removing a property only drops its lines.
+ * <p/>
+ * The file is read and written as ISO 8859-1 like {@link java.util.Properties} does, the characters it can't hold
+ * being written as unicode escapes, so that the unchanged lines are written back byte for byte and a file whose
+ * properties didn't change isn't written at all.
+ */
+public class PropertiesFile implements ConfigFile
+{
+   private final String original;
+   private final String lineSeparator;
+   private final List<Line> lines = new ArrayList<>();
+
+   private PropertiesFile(String text)
+   {
+      this.original = text;
+      this.lineSeparator = detectLineSeparator(text);
+      int start = 0;
+      while (start < text.length())
+      {
+         int end = start;
+         // a logical line goes on after a line ending with an odd number of backslashes
+         while (true)
+         {
+            int eol = end;
+            while (eol < text.length() && text.charAt(eol) != '\n' && text.charAt(eol) != '\r')
+            {
+               eol++;
+            }
+            int next = eol;
+            if (next < text.length() && text.charAt(next) == '\r')
+            {
+               next++;
+            }
+            if (next < text.length() && text.charAt(next) == '\n')
+            {
+               next++;
+            }
+            end = next;
+            if (eol == next || !isContinued(text, start, eol))
+            {
+               break;
+            }
+         }
+         lines.add(new Line(text.substring(start, end)));
+         start = end;
+      }
+   }
+
+   public static PropertiesFile parse(String text)
+   {
+      return new PropertiesFile(text);
+   }
+
+   public static PropertiesFile read(InputStream in) throws IOException
+   {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      IOHelper.copyAndCloseInput(in, bytes);
+      return parse(new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1));
+   }
+
+   /**
+    * Applies the given changes to a properties file, creating it if needed, and writes it only if its content changed.
+    *
+    * @return whether the file was written
+    */
+   public static boolean update(File file, Consumer<PropertiesFile> changes) throws IOException
+   {
+      final PropertiesFile properties = file.isFile() ? read(new FileInputStream(file)) : parse("");
+      changes.accept(properties);
+      if (!properties.isChanged() && file.isFile())
+      {
+         return false;
+      }
+      if (file.getParentFile() != null)
+      {
+         file.getParentFile().mkdirs();
+      }
+      Files.write(file.toPath(), properties.getBytes());
+      return true;
+   }
+
+   /**
+    * Returns the value of the given property, or <tt>null</tt>. When declared more than once, the last declaration
+    * wins.
+    */
+   @Override
+   public String get(String key)
+   {
+      final Line line = find(key);
+      return line != null ? line.value : null;
+   }
+
+   /**
+    * Returns the properties of the file, in the order they are declared.
+    */
+   public Map<String, String> asMap()
+   {
+      final Map<String, String> properties = new LinkedHashMap<>();
+      for (Line line : lines)
+      {
+         if (line.key != null)
+         {
+            properties.put(line.key, line.value);
+         }
+      }
+      return properties;
+   }
+
+   /**
+    * Sets the value of the given property, rewriting only the value of the line declaring it, or appending a line when
+    * it isn't declared yet. Does nothing if the property already has this value.
+    */
+   @Override
+   public void set(String key, String value)
+   {
+      final Line line = find(key);
+      if (line == null)
+      {
+         if (!lines.isEmpty() && !lines.get(lines.size() - 1).endsWithNewLine())
+         {
+            lines.get(lines.size() - 1).text += lineSeparator;
+         }
+         lines.add(new Line(escape(key, true) + "=" + escape(value, false) + lineSeparator));
+      }
+      else if (!value.equals(line.value))
+      {
+         line.setValue(value);
+      }
+   }
+
+   /**
+    * Removes all the declarations of the given property.
+    */
+   public void remove(String key)
+   {
+      removeIf(key::equals);
+   }
+
+   /**
+    * Removes all the declarations of the properties matching the given predicate.
+    */
+   @Override
+   public void removeIf(Predicate<String> keys)
+   {
+      lines.removeIf(line -> line.key != null && keys.test(line.key));
+   }
+
+   /**
+    * Returns whether the content of the file differs from the one it was read from.
+    */
+   @Override
+   public boolean isChanged()
+   {
+      return !original.equals(getText());
+   }
+
+   @Override
+   public String getText()
+   {
+      final StringBuilder text = new StringBuilder(original.length() + 64);
+      for (Line line : lines)
+      {
+         text.append(line.text);
+      }
+      return text.toString();
+   }
+
+   public byte[] getBytes()
+   {
+      return getText().getBytes(StandardCharsets.ISO_8859_1);
+   }
+
+   @Override
+   public void write(OutputStream out) throws IOException
+   {
+      out.write(getBytes());
+   }
+
+   @Override
+   public String toString()
+   {
+      return getText();
+   }
+
+   private Line find(String key)
+   {
+      for (int i = lines.size() - 1; i >= 0; i--)
+      {
+         if (key.equals(lines.get(i).key))
+         {
+            return lines.get(i);
+         }
+      }
+      return null;
+   }
+
+   private static String detectLineSeparator(String text)
+   {
+      final int eol = text.indexOf('\n');
+      if (eol < 0)
+      {
+         return System.getProperty("line.separator");
+      }
+      return eol > 0 && text.charAt(eol - 1) == '\r' ? "\r\n" : "\n";
+   }
+
+   private static boolean isContinued(String text, int start, int eol)
+   {
+      if (isComment(text, start))
+      {
+         return false;
+      }
+      int backslashes = 0;
+      for (int i = eol - 1; i >= start && text.charAt(i) == '\\'; i--)
+      {
+         backslashes++;
+      }
+      return backslashes % 2 == 1;
+   }
+
+   private static boolean isComment(String text, int start)
+   {
+      int i = start;
+      while (i < text.length() && isWhitespace(text.charAt(i)))
+      {
+         i++;
+      }
+      return i < text.length() && (text.charAt(i) == '#' || text.charAt(i) == '!');
+   }
+
+   private static boolean isWhitespace(char c)
+   {
+      return c == ' ' || c == '\t' || c == '\f';
+   }
+
+   /**
+    * Escapes a key or value the way {@link java.util.Properties#store} does, except for the separators in values
+    * which don't need to be.
+    */
+   static String escape(String text, boolean key)
+   {
+      final StringBuilder escaped = new StringBuilder(text.length() + 8);
+      for (int i = 0; i < text.length(); i++)
+      {
+         final char c = text.charAt(i);
+         switch (c)
+         {
+         case '\\':
+            escaped.append("\\\\");
+            break;
+         case '\t':
+            escaped.append("\\t");
+            break;
+         case '\n':
+            escaped.append("\\n");
+            break;
+         case '\r':
+            escaped.append("\\r");
+            break;
+         case '\f':
+            escaped.append("\\f");
+            break;
+         case ' ':
+            escaped.append(key || i == 0 ? "\\ " : " ");
+            break;
+         case '=':
+         case ':':
+            escaped.append(key ? "\\" + c : String.valueOf(c));
+            break;
+         case '#':
+         case '!':
+            escaped.append(key && i == 0 ? "\\" + c : String.valueOf(c));
+            break;
+         default:
+            if (c < 0x20 || c > 0x7e)
+            {
+               escaped.append(String.format("\\u%04X", (int) c));
+            }
+            else
+            {
+               escaped.append(c);
+            }
+         }
+      }
+      return escaped.toString();
+   }
+
+   /**
+    * Unescapes a key or value, skipping the line continuations and the leading whitespace of continued lines.
+    */
+   static String unescape(String text)
+   {
+      final StringBuilder value = new StringBuilder(text.length());
+      int i = 0;
+      while (i < text.length())
+      {
+         char c = text.charAt(i++);
+         if (c == '\r' || c == '\n')
+         {
+            // end of the logical line
+            break;
+         }
+         if (c != '\\')
+         {
+            value.append(c);
+            continue;
+         }
+         if (i == text.length())
+         {
+            // a continuation at the end of the file
+            break;
+         }
+         c = text.charAt(i++);
+         switch (c)
+         {
+         case '\r':
+         case '\n':
+            // line continuation
+            if (c == '\r' && i < text.length() && text.charAt(i) == '\n')
+            {
+               i++;
+            }
+            while (i < text.length() && isWhitespace(text.charAt(i)))
+            {
+               i++;
+            }
+            break;
+         case 't':
+            value.append('\t');
+            break;
+         case 'n':
+            value.append('\n');
+            break;
+         case 'r':
+            value.append('\r');
+            break;
+         case 'f':
+            value.append('\f');
+            break;
+         case 'u':
+            if (i + 4 <= text.length())
+            {
+               try
+               {
+                  value.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                  i += 4;
+                  break;
+               }
+               catch (NumberFormatException e)
+               {
+                  throw new IllegalArgumentException("Malformed \\uxxxx encoding in: " + text, e);
+               }
+            }
+            throw new IllegalArgumentException("Malformed \\uxxxx encoding in: " + text);
+         default:
+            value.append(c);
+         }
+      }
+      return value.toString();
+   }
+
+   /**
+    * A logical line of the file, possibly made of several continued lines, with its line terminator.
+    */
+   private static class Line
+   {
+      private String text;
+      private String key;
+      private String value;
+      // where the key ends and the value starts in the text
+      private int keyEnd;
+      private int valueStart;
+
+      Line(String text)
+      {
+         this.text = text;
+         int i = 0;
+         while (i < text.length() && isWhitespace(text.charAt(i)))
+         {
+            i++;
+         }
+         if (i == text.length() || text.charAt(i) == '\r' || text.charAt(i) == '\n' || isComment(text, i))
+         {
+            return;
+         }
+
+         // the key ends at the first unescaped separator or whitespace
+         final int keyStart = i;
+         while (i < text.length())
+         {
+            final char c = text.charAt(i);
+            if (c == '\\')
+            {
+               i += 2;
+               continue;
+            }
+            if (c == '=' || c == ':' || isWhitespace(c) || c == '\r' || c == '\n')
+            {
+               break;
+            }
+            i++;
+         }
+         keyEnd = Math.min(i, text.length());
+         while (i < text.length() && isWhitespace(text.charAt(i)))
+         {
+            i++;
+         }
+         if (i < text.length() && (text.charAt(i) == '=' || text.charAt(i) == ':'))
+         {
+            i++;
+            while (i < text.length() && isWhitespace(text.charAt(i)))
+            {
+               i++;
+            }
+         }
+         key = unescape(text.substring(keyStart, keyEnd));
+         valueStart = i;
+         value = unescape(text.substring(valueStart));
+      }
+
+      boolean endsWithNewLine()
+      {
+         return text.endsWith("\n") || text.endsWith("\r");
+      }
+
+      /**
+       * Replaces the value of the line, keeping its key, separator and line terminator as they are.
+       */
+      void setValue(String newValue)
+      {
+         int end = text.length();
+         while (end > valueStart && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r'))
+         {
+            end--;
+         }
+         // a key declared without separator nor value gets one
+         final String separator = valueStart == keyEnd ? "=" : "";
+         text = text.substring(0, valueStart) + separator + escape(newValue, false) + text.substring(end);
+         value = newValue;
+      }
+   }
+}
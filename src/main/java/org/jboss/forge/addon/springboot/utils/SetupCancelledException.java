@@ -0,0 +1,22 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.IOException;
+
+/**
+ * Thrown from the download and extraction stages of a setup when the user cancelled it from the progress monitor.
+ */
+public class SetupCancelledException extends IOException
+{
+   private static final long serialVersionUID = 1L;
+
+   public SetupCancelledException(String stage)
+   {
+      super("Setup cancelled during " + stage.toLowerCase());
+   }
+}
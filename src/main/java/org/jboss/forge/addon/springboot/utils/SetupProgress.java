@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.jboss.forge.addon.ui.progress.UIProgressMonitor;
+
+/**
+ * Tracks the stages of a setup (download, extraction) reporting the bytes and entries processed, the throughput and
+ * the estimated remaining time through the Forge progress monitor, which is also polled for cancellation. Stages can be
+ * updated from several threads; without a monitor the figures are only collected for the summary.
+ */
+public class SetupProgress
+{
+   /**
+    * Minimum delay between two updates of the monitor, so that reporting doesn't slow down the copy loops
+    */
+   private static final long REPORT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+
+   private final UIProgressMonitor monitor;
+   private final List<Stage> stages = new CopyOnWriteArrayList<>();
+   private final AtomicLong lastReport = new AtomicLong();
+
+   /**
+    * @param monitor the monitor to report to, may be <tt>null</tt>
+    */
+   public SetupProgress(UIProgressMonitor monitor)
+   {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Starts the setup task made of the given number of stages.
+    */
+   public void begin(String name, int stageCount)
+   {
+      if (monitor != null)
+      {
+         monitor.beginTask(name, stageCount);
+      }
+   }
+
+   /**
+    * Starts a new stage.
+    *
+    * @param totalBytes the number of bytes the stage will process, or -1 if unknown
+    */
+   public Stage stage(String name, long totalBytes)
+   {
+      final Stage stage = new Stage(name, totalBytes);
+      stages.add(stage);
+      report(stage, true);
+      return stage;
+   }
+
+   public boolean isCancelled()
+   {
+      return monitor != null && monitor.isCancelled();
+   }
+
+   public void done()
+   {
+      if (monitor != null)
+      {
+         monitor.done();
+      }
+   }
+
+   public List<Stage> getStages()
+   {
+      return stages;
+   }
+
+   /**
+    * Returns a one line summary of the stages, e.g. "Download: 58.2 KB in 412 ms (141.3 KB/s)"
+    */
+   public String getSummary()
+   {
+      return stages.stream().map(Stage::toString).collect(Collectors.joining(", "));
+   }
+
+   private void report(Stage stage, boolean force)
+   {
+      if (monitor == null)
+      {
+         return;
+      }
+      final long now = System.nanoTime();
+      final long last = lastReport.get();
+      if (force || (now - last >= REPORT_INTERVAL && lastReport.compareAndSet(last, now)))
+      {
+         monitor.subTask(stage.getStatus());
+      }
+   }
+
+   static String formatSize(long bytes)
+   {
+      if (bytes < 1024)
+      {
+         return bytes + " B";
+      }
+      if (bytes < 1024 * 1024)
+      {
+         return String.format("%.1f KB", bytes / 1024d);
+      }
+      return String.format("%.1f MB", bytes / (1024d * 1024d));
+   }
+
+   /**
+    * A stage of the setup, e.g. the download of the starter archive.
+    */
+   public class Stage
+   {
+      private final String name;
+      private final long start = System.nanoTime();
+      private final AtomicLong bytes = new AtomicLong();
+      private final AtomicLong entries = new AtomicLong();
+      private volatile long totalBytes;
+      private volatile long totalEntries = -1;
+      private volatile long end;
+
+      Stage(String name, long totalBytes)
+      {
+         this.name = name;
+         this.totalBytes = totalBytes;
+      }
+
+      public String getName()
+      {
+         return name;
+      }
+
+      /**
+       * Sets the number of entries the stage will process, when known.
+       */
+      public void setTotalEntries(long totalEntries)
+      {
+         this.totalEntries = totalEntries;
+      }
+
+      /**
+       * Records processed bytes.
+       *
+       * @throws SetupCancelledException if the setup was cancelled
+       */
+      public void bytes(long count) throws SetupCancelledException
+      {
+         bytes.addAndGet(count);
+         progressed();
+      }
+
+      /**
+       * Records a processed entry along with its size.
+       *
+       * @throws SetupCancelledException if the setup was cancelled
+       */
+      public void entry(long size) throws SetupCancelledException
+      {
+         bytes.addAndGet(size);
+         entries.incrementAndGet();
+         progressed();
+      }
+
+      /**
+       * Throws if the setup was cancelled, to be called before any irreversible step of the stage.
+       */
+      public void checkCancelled() throws SetupCancelledException
+      {
+         if (isCancelled())
+         {
+            throw new SetupCancelledException(name);
+         }
+      }
+
+      /**
+       * Ends the stage, counting it as worked on the monitor.
+       */
+      public void finish()
+      {
+         if (end == 0)
+         {
+            end = System.nanoTime();
+            if (monitor != null)
+            {
+               monitor.worked(1);
+            }
+         }
+      }
+
+      /**
+       * Returns a stream reporting the bytes read from the given one to this stage.
+       */
+      public InputStream track(InputStream in)
+      {
+         return new FilterInputStream(in)
+         {
+            @Override
+            public int read() throws IOException
+            {
+               final int b = super.read();
+               if (b != -1)
+               {
+                  bytes(1);
+               }
+               return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException
+            {
+               final int n = super.read(b, off, len);
+               if (n > 0)
+               {
+                  bytes(n);
+               }
+               return n;
+            }
+         };
+      }
+
+      public long getBytes()
+      {
+         return bytes.get();
+      }
+
+      public long getEntries()
+      {
+         return entries.get();
+      }
+
+      public long getElapsedMillis()
+      {
+         return TimeUnit.NANOSECONDS.toMillis((end == 0 ? System.nanoTime() : end) - start);
+      }
+
+      /**
+       * Returns the throughput of the stage in bytes per second.
+       */
+      public long getThroughput()
+      {
+         final long elapsed = Math.max(1, getElapsedMillis());
+         return bytes.get() * 1000 / elapsed;
+      }
+
+      /**
+       * Returns the estimated remaining time of the stage in milliseconds, or -1 if the amount of work isn't known.
+       */
+      public long getRemainingMillis()
+      {
+         final long elapsed = getElapsedMillis();
+         if (totalBytes > 0 && bytes.get() > 0)
+         {
+            return Math.max(0, elapsed * (totalBytes - bytes.get()) / bytes.get());
+         }
+         if (totalEntries > 0 && entries.get() > 0)
+         {
+            return Math.max(0, elapsed * (totalEntries - entries.get()) / entries.get());
+         }
+         return -1;
+      }
+
+      /**
+       * Returns the current state of the stage as shown by the monitor.
+       */
+      public String getStatus()
+      {
+         final StringBuilder status = new StringBuilder(name).append(": ").append(formatSize(bytes.get()));
+         if (totalBytes > 0)
+         {
+            status.append(" of ").append(formatSize(totalBytes));
+         }
+         if (entries.get() > 0)
+         {
+            status.append(", ").append(entries.get());
+            if (totalEntries > 0)
+            {
+               status.append('/').append(totalEntries);
+            }
+            status.append(" entries");
+         }
+         status.append(", ").append(formatSize(getThroughput())).append("/s");
+         final long remaining = getRemainingMillis();
+         if (remaining >= 0)
+         {
+            status.append(", about ").append(TimeUnit.MILLISECONDS.toSeconds(remaining + 999)).append(" s left");
+         }
+         return status.toString();
+      }
+
+      private void progressed() throws SetupCancelledException
+      {
+         checkCancelled();
+         report(this, false);
+      }
+
+      @Override
+      public String toString()
+      {
+         final StringBuilder summary = new StringBuilder(name).append(": ");
+         if (entries.get() > 0)
+         {
+            summary.append(entries.get()).append(" entries, ");
+         }
+         return summary.append(formatSize(bytes.get())).append(" in ").append(getElapsedMillis()).append(" ms (")
+                  .append(formatSize(getThroughput())).append("/s)").toString();
+      }
+   }
+}
@@ -26,16 +26,20 @@ import org.jboss.forge.roaster.Roaster;
 import org.jboss.forge.roaster.model.source.JavaClassSource;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 public class SpringBootHelper {
 
    private final static String LINE_SEPARATOR = System.getProperty("line.separator");
+   private final static String APPLICATION_PROPERTIES = "application.properties";
+   private final static String[] APPLICATION_YAML = { "application.yml", "application.yaml" };
+   public final static String SPRING_BOOT_APPLICATION = "SpringBootApplication";
 
    @Inject
    private ProjectFactory projectFactory;
@@ -132,7 +136,33 @@ public class SpringBootHelper {
    }
 
    public static FileResource<?> getApplicationProperties(Project project, boolean create) {
-      FileResource<?> applicationFile = project.getFacet(ResourcesFacet.class).getResource("application.properties");
+      return getConfigFile(project, APPLICATION_PROPERTIES, create);
+   }
+
+   /**
+    * Returns the configuration file of the specified project: its `application.yml` (or `application.yaml`) if it
+    * has one and no properties in `application.properties`, its `application.properties` otherwise, created if
+    * needed and asked for.
+    */
+   public static FileResource<?> getApplicationConfig(Project project, boolean create) {
+      final ResourcesFacet resources = project.getFacet(ResourcesFacet.class);
+      final FileResource<?> properties = resources.getResource(APPLICATION_PROPERTIES);
+      if (!properties.exists() || properties.getSize() == 0) {
+         for (String yaml : APPLICATION_YAML) {
+            final FileResource<?> yamlFile = resources.getResource(yaml);
+            if (yamlFile.exists()) {
+               return yamlFile;
+            }
+         }
+      }
+      if (create && !properties.exists()) {
+         properties.createNewFile();
+      }
+      return properties;
+   }
+
+   private static FileResource<?> getConfigFile(Project project, String name, boolean create) {
+      FileResource<?> applicationFile = project.getFacet(ResourcesFacet.class).getResource(name);
       if (create && !applicationFile.exists()) {
          applicationFile.createNewFile();
       }
@@ -144,63 +174,76 @@ public class SpringBootHelper {
       writeToApplicationProperties(project, false, properties);
    }
 
+   /**
+    * Merges the given properties into the configuration file of the project, or replaces its properties with them
+    * when replaceCompletely is set. Only the values that changed are rewritten, the comments and order of the file
+    * being kept, and the file isn't written at all if no value changed.
+    */
    public static void writeToApplicationProperties(Project project, boolean replaceCompletely, Properties properties) {
       if (properties != null) {
-         final FileResource<?> applicationFile = getApplicationProperties(project);
-
-         final Properties newProps;
-         if (!replaceCompletely) {
-            // load existing properties and merge them with the new ones, replacing old values with new ones when the
-            // new properties provide values for already existing keys
-            try (InputStream inStream = applicationFile.getResourceInputStream()) {
-               newProps = new Properties();
-               newProps.load(inStream);
-
-               for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-                  newProps.put(entry.getKey(), entry.getValue());
-               }
-
-
-            } catch (IOException e) {
-               throw new RuntimeException("Couldn't read existing " + applicationFile.getFullyQualifiedName(), e);
+         updateApplicationConfig(project, file -> {
+            if (replaceCompletely) {
+               file.removeIf(key -> !properties.containsKey(key));
             }
-
-         } else {
-            newProps = properties;
-         }
-
-         try (OutputStream out = applicationFile.getResourceOutputStream()) {
-            newProps.store(out, null);
-         } catch (IOException e) {
-            throw new RuntimeException("Couldn't save " + applicationFile.getFullyQualifiedName(), e);
-         }
+            file.setAll(properties);
+         });
       }
    }
 
    public static void removeSpringDataPropertiesFromApplication(Project project) {
-      final FileResource<?> applicationFile = getApplicationProperties(project);
+      updateApplicationConfig(project,
+            file -> file.removeIf(key -> key.startsWith(SpringBootJPAFacet.SPRING_DATASOURCE_PROPERTIES_PREFIX)));
+   }
 
-      Properties initial = new Properties();
-      Properties newProps = new Properties();
-      try (InputStream inStream = applicationFile.getResourceInputStream()) {
-         initial.load(inStream);
+   /**
+    * Applies the given changes to the configuration file of the project, see {@link #getApplicationConfig}, writing
+    * it only if its content changed. While a command is being executed, the file is only written once the command
+    * completes, see {@link ApplicationPropertiesSession}.
+    *
+    * @return whether the content of the file changed
+    */
+   public static boolean updateApplicationConfig(Project project, Consumer<ConfigFile> changes) {
+      return updateConfigFile(getApplicationConfig(project, true), changes);
+   }
 
-         for (Map.Entry<Object, Object> entry : initial.entrySet()) {
-            final Object key = entry.getKey();
-            if (!key.toString().startsWith(SpringBootJPAFacet.SPRING_DATASOURCE_PROPERTIES_PREFIX)) {
-               newProps.put(key, entry.getValue());
-            }
-         }
+   /**
+    * Applies the given changes to the configuration of a profile of the project: the document of the profile in
+    * `application.yml`, added if needed, or else the `application-{profile}.properties` file.
+    *
+    * @return whether the content of the file changed
+    */
+   public static boolean updateApplicationConfig(Project project, String profile, Consumer<ConfigFile> changes) {
+      final FileResource<?> applicationFile = getApplicationConfig(project, false);
+      if (ConfigFile.isYaml(applicationFile.getName())) {
+         return updateConfigFile(applicationFile, file -> changes.accept(((YamlConfigFile) file).forProfile(profile)));
+      }
+      return updateConfigFile(getConfigFile(project, "application-" + profile + ".properties", true), changes);
+   }
 
+   private static boolean updateConfigFile(FileResource<?> applicationFile, Consumer<ConfigFile> changes) {
+      final ApplicationPropertiesSession session = ApplicationPropertiesSession.current();
+      if (session != null) {
+         return session.update(applicationFile, changes);
+      }
+
+      final ConfigFile file;
+      try (InputStream inStream = applicationFile.getResourceInputStream()) {
+         file = ConfigFile.read(applicationFile.getName(), inStream);
       } catch (IOException e) {
          throw new RuntimeException("Couldn't read existing " + applicationFile.getFullyQualifiedName(), e);
       }
 
+      changes.accept(file);
+      if (!file.isChanged()) {
+         return false;
+      }
+
       try (OutputStream out = applicationFile.getResourceOutputStream()) {
-         newProps.store(out, null);
+         file.write(out);
       } catch (IOException e) {
          throw new RuntimeException("Couldn't save " + applicationFile.getFullyQualifiedName(), e);
       }
+      return true;
    }
 
    public Project getProject(UIContext uiContext) {
@@ -232,9 +275,21 @@ public class SpringBootHelper {
       }
    }
 
-   public static void modifySpringBootApplication(Project project, JavaClassSourceDecorator decorator) {
-      // todo: find a better way than hardcode app name, maybe iterate over files and look for @SpringBootApplication
-      modifyJavaClass(project, "DemoApplication.java", Optional.empty(), decorator);
+   /**
+    * Modifies the class annotated with `@SpringBootApplication` of the project, whatever its name and package, see
+    * {@link AnnotationIndex}.
+    *
+    * @return whether the project has such a class
+    */
+   public static boolean modifySpringBootApplication(Project project, JavaClassSourceDecorator decorator) {
+      final JavaSourceFacet sourceFacet = project.getFacet(JavaSourceFacet.class);
+      final AnnotationIndex index = AnnotationIndex.of(sourceFacet.getSourceDirectory().getUnderlyingResourceObject());
+      final File application = index.findFirst(SPRING_BOOT_APPLICATION);
+      if (application == null) {
+         return false;
+      }
+      modifyJavaClass(project, application.getName(), Optional.of(index.getPackage(application)), decorator);
+      return true;
    }
 
    @FunctionalInterface
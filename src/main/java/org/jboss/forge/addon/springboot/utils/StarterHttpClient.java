@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The HTTP client used to talk to the starter service, shared by the whole addon.
+ * <p/>
+ * Connections are kept alive and pooled by the JDK as long as response bodies are consumed and closed, so that
+ * subsequent requests don't pay for a new connection and TLS handshake. Responses are negotiated gzip compressed, and
+ * text resources such as the catalog are revalidated with conditional requests ({@code If-None-Match} /
+ * {@code If-Modified-Since}) against the last response received for the same URL.
+ */
+@Singleton
+public class StarterHttpClient
+{
+   private static final transient Logger LOG = LoggerFactory.getLogger(StarterHttpClient.class);
+
+   private static final int CONNECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+   private static final int READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(60);
+   private static final String GZIP = "gzip";
+
+   private final String userAgent = "SpringBootForgeCli/" + getClass().getPackage().getImplementationVersion();
+   private final Map<String, CachedText> texts = new ConcurrentHashMap<>();
+
+   public String getUserAgent()
+   {
+      return userAgent;
+   }
+
+   /**
+    * Fetches the given URL as text, revalidating the previously fetched content if there is one and reusing it when
+    * the server answers that it wasn't modified.
+    */
+   public Response<String> getText(String url, String accept) throws IOException
+   {
+      final long start = System.nanoTime();
+      final CachedText cached = texts.get(url);
+      final HttpURLConnection connection = open(url, accept);
+      if (cached != null)
+      {
+         if (cached.etag != null)
+         {
+            connection.setRequestProperty("If-None-Match", cached.etag);
+         }
+         if (cached.lastModified != null)
+         {
+            connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+         }
+      }
+
+      final int status = connection.getResponseCode();
+      if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null)
+      {
+         consume(connection);
+         LOG.debug("{} not modified, reusing previous content", url);
+         return new Response<>(cached.text, new ResponseInfo(url, status, cached.etag, cached.lastModified, null, -1,
+                  System.nanoTime() - start));
+      }
+      checkStatus(url, status, connection);
+
+      final String text;
+      try (InputStream in = decode(connection))
+      {
+         text = IOHelper.loadText(in, charset(connection));
+      }
+      final String etag = connection.getHeaderField("ETag");
+      final String lastModified = connection.getHeaderField("Last-Modified");
+      if (etag != null || lastModified != null)
+      {
+         texts.put(url, new CachedText(text, etag, lastModified));
+      }
+      return new Response<>(text, new ResponseInfo(url, status, etag, lastModified, connection.getContentEncoding(),
+               connection.getContentLengthLong(), System.nanoTime() - start));
+   }
+
+   /**
+    * Makes the given content, fetched from the given URL by an earlier session along with the given validators, the
+    * one revalidated by the next {@link #getText(String, String)} of that URL unless a more recent one is known.
+    */
+   public void addCachedText(String url, String text, String etag, String lastModified)
+   {
+      if (etag != null || lastModified != null)
+      {
+         texts.putIfAbsent(url, new CachedText(text, etag, lastModified));
+      }
+   }
+
+   /**
+    * Opens a stream on the body of the given URL, transparently decompressed. The stream must be closed, ideally once
+    * fully read, so that the underlying connection can be reused.
+    */
+   public Response<InputStream> openStream(String url) throws IOException
+   {
+      final long start = System.nanoTime();
+      final HttpURLConnection connection = open(url, "*/*");
+      final int status = connection.getResponseCode();
+      checkStatus(url, status, connection);
+      final ResponseInfo info = new ResponseInfo(url, status, connection.getHeaderField("ETag"),
+               connection.getHeaderField("Last-Modified"), connection.getContentEncoding(),
+               connection.getContentLengthLong(), System.nanoTime() - start);
+      return new Response<>(decode(connection), info);
+   }
+
+   private HttpURLConnection open(String url, String accept) throws IOException
+   {
+      final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setConnectTimeout(CONNECT_TIMEOUT);
+      connection.setReadTimeout(READ_TIMEOUT);
+      connection.setRequestProperty("User-Agent", userAgent);
+      connection.setRequestProperty("Accept", accept);
+      connection.setRequestProperty("Accept-Encoding", GZIP);
+      return connection;
+   }
+
+   private static InputStream decode(HttpURLConnection connection) throws IOException
+   {
+      final InputStream in = connection.getInputStream();
+      return GZIP.equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(in) : in;
+   }
+
+   private static Charset charset(HttpURLConnection connection)
+   {
+      final String contentType = connection.getContentType();
+      if (contentType != null)
+      {
+         for (String parameter : contentType.split(";"))
+         {
+            parameter = parameter.trim();
+            if (parameter.toLowerCase().startsWith("charset="))
+            {
+               try
+               {
+                  return Charset.forName(parameter.substring("charset=".length()).replace("\"", ""));
+               }
+               catch (IllegalArgumentException e)
+               {
+                  // unknown charset, use the default one
+               }
+            }
+         }
+      }
+      return StandardCharsets.UTF_8;
+   }
+
+   private static void checkStatus(String url, int status, HttpURLConnection connection) throws IOException
+   {
+      if (status >= HttpURLConnection.HTTP_BAD_REQUEST)
+      {
+         // read the error body so that the connection can be reused
+         final InputStream error = connection.getErrorStream();
+         final String message = error != null ? IOHelper.loadText(error).trim() : "";
+         throw new IOException("GET " + url + " returned HTTP " + status + (message.isEmpty() ? "" : ": " + message));
+      }
+   }
+
+   private static void consume(HttpURLConnection connection) throws IOException
+   {
+      try (InputStream in = connection.getInputStream())
+      {
+         while (in.read() != -1)
+         {
+            // drain
+         }
+      }
+   }
+
+   private static class CachedText
+   {
+      private final String text;
+      private final String etag;
+      private final String lastModified;
+
+      CachedText(String text, String etag, String lastModified)
+      {
+         this.text = text;
+         this.etag = etag;
+         this.lastModified = lastModified;
+      }
+   }
+
+   /**
+    * The body of a response along with its {@link ResponseInfo}, returned together so that concurrent requests don't
+    * see each other's.
+    */
+   public static class Response<T>
+   {
+      private final T body;
+      private final ResponseInfo info;
+
+      Response(T body, ResponseInfo info)
+      {
+         this.body = body;
+         this.info = info;
+      }
+
+      public T getBody()
+      {
+         return body;
+      }
+
+      public ResponseInfo getInfo()
+      {
+         return info;
+      }
+   }
+
+   /**
+    * The validators and timing of a response.
+    */
+   public static class ResponseInfo
+   {
+      private final String url;
+      private final int status;
+      private final String etag;
+      private final String lastModified;
+      private final String contentEncoding;
+      private final long contentLength;
+      private final long elapsed;
+
+      ResponseInfo(String url, int status, String etag, String lastModified, String contentEncoding,
+               long contentLength, long elapsed)
+      {
+         this.url = url;
+         this.status = status;
+         this.etag = etag;
+         this.lastModified = lastModified;
+         this.contentEncoding = contentEncoding;
+         this.contentLength = contentLength;
+         this.elapsed = elapsed;
+      }
+
+      public String getUrl()
+      {
+         return url;
+      }
+
+      public int getStatus()
+      {
+         return status;
+      }
+
+      public boolean isNotModified()
+      {
+         return status == HttpURLConnection.HTTP_NOT_MODIFIED;
+      }
+
+      public String getETag()
+      {
+         return etag;
+      }
+
+      public String getLastModified()
+      {
+         return lastModified;
+      }
+
+      public String getContentEncoding()
+      {
+         return contentEncoding;
+      }
+
+      /**
+       * Returns the length of the body as sent by the server, i.e. before decompression, or -1 if unknown.
+       */
+      public long getContentLength()
+      {
+         return contentLength;
+      }
+
+      /**
+       * Returns the size of the body once decompressed, or -1 if unknown.
+       */
+      public long getDecodedLength()
+      {
+         return contentEncoding == null || "identity".equalsIgnoreCase(contentEncoding) ? contentLength : -1;
+      }
+
+      /**
+       * Returns the time it took to receive the response, including its body for text responses, in milliseconds.
+       */
+      public long getElapsedMillis()
+      {
+         return TimeUnit.NANOSECONDS.toMillis(elapsed);
+      }
+
+      @Override
+      public String toString()
+      {
+         return String.format("GET %s: HTTP %d in %d ms (ETag=%s, Last-Modified=%s, Content-Encoding=%s)", url, status,
+                  getElapsedMillis(), etag, lastModified, contentEncoding);
+      }
+   }
+}
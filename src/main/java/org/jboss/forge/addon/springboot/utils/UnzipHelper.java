@@ -6,12 +6,16 @@
  */
 package org.jboss.forge.addon.springboot.utils;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
 
 public class UnzipHelper
@@ -25,45 +29,202 @@ public class UnzipHelper
    /**
     * Extracts a zip file specified by the zipFilePath to a directory specified by
     * destDirectory (will be created if does not exists)
+    *
+    * @see ZipExtractor
     */
    public static void unzip(File file, File destDir) throws IOException
+   {
+      unzip(file, destDir, null);
+   }
+
+   /**
+    * Extracts a zip file to destDir reporting the extracted entries to the given stage, if any.
+    *
+    * @see ZipExtractor
+    */
+   public static void unzip(File file, File destDir, SetupProgress.Stage stage) throws IOException
+   {
+      ZipExtractor.extract(file, destDir, stage);
+   }
+
+   /**
+    * Extracts the zip content read from the given stream to a directory specified by destDirectory (will be created if
+    * does not exists). Entries are written as soon as they are read so the stream can be consumed while it is still
+    * being received, e.g. straight from an HTTP response body. The stream is closed once extraction is over.
+    */
+   public static void unzip(InputStream in, File destDir) throws IOException
+   {
+      unzip(in, destDir, null);
+   }
+
+   /**
+    * Extracts the zip content read from the given stream to destDir reporting the extracted entries to the given stage,
+    * if any.
+    */
+   public static void unzip(InputStream in, File destDir, SetupProgress.Stage stage) throws IOException
    {
       if (!destDir.exists())
       {
-         destDir.mkdir();
+         destDir.mkdirs();
       }
-      ZipInputStream zipIn = new ZipInputStream(new FileInputStream(file));
-      ZipEntry entry = zipIn.getNextEntry();
-      // iterates over entries in the zip file
-      while (entry != null)
+      ZipInputStream zipIn = new ZipInputStream(in);
+      try
       {
-         File entryFile = new File(destDir, entry.getName());
-         if (!entry.isDirectory())
+         ZipEntry entry = zipIn.getNextEntry();
+         if (entry == null)
          {
-            // if the entry is a file, extracts it
-            extractFile(zipIn, entryFile);
+            throw notAnArchive();
+         }
+         // iterates over entries in the zip file
+         while (entry != null)
+         {
+            File entryFile = resolveEntry(destDir, entry.getName());
+            if (!entry.isDirectory())
+            {
+               // streamed archives don't always list parent directories before their files
+               File parent = entryFile.getParentFile();
+               if (!parent.exists())
+               {
+                  parent.mkdirs();
+               }
+               // if the entry is a file, extracts it
+               final int size = extractFile(zipIn, entryFile);
+               if (stage != null)
+               {
+                  stage.entry(size);
+               }
+            }
+            else
+            {
+               // if the entry is a directory, make the directory
+               entryFile.mkdirs();
+            }
+            zipIn.closeEntry();
+            entry = zipIn.getNextEntry();
+         }
+      }
+      finally
+      {
+         zipIn.close();
+      }
+   }
+
+   /**
+    * Overlays the zip content read from the given stream on top of destDir (will be created if does not exists): only
+    * the entries whose content differs from the file already on disk are written, the other files are left untouched.
+    * The stream is closed once extraction is over.
+    *
+    * @return what was added, modified or left unchanged
+    */
+   public static OverlayReport overlay(InputStream in, File destDir) throws IOException
+   {
+      return overlay(in, destDir, null);
+   }
+
+   /**
+    * Overlays the zip content read from the given stream on top of destDir reporting the read entries to the given
+    * stage, if any. The whole archive is read before anything is written, so that a cancelled or failed download leaves
+    * destDir untouched.
+    *
+    * @return what was added, modified or left unchanged
+    */
+   public static OverlayReport overlay(InputStream in, File destDir, SetupProgress.Stage stage) throws IOException
+   {
+      final OverlayReport report = new OverlayReport();
+      overlay(in, destDir, stage, report);
+      return report;
+   }
+
+   /**
+    * Overlays the zip content read from the given stream on top of destDir, recording the written files in the given
+    * report as they are written, so that the caller knows what to revert if the overlay fails midway.
+    */
+   public static void overlay(InputStream in, File destDir, SetupProgress.Stage stage, OverlayReport report)
+            throws IOException
+   {
+      // null content stands for a directory
+      final Map<String, byte[]> entries = new LinkedHashMap<>();
+      ZipInputStream zipIn = new ZipInputStream(in);
+      try
+      {
+         ZipEntry entry;
+         while ((entry = zipIn.getNextEntry()) != null)
+         {
+            if (entry.isDirectory())
+            {
+               entries.put(entry.getName(), null);
+            }
+            else
+            {
+               final long size = entry.getSize();
+               final ByteArrayOutputStream content = new ByteArrayOutputStream(size > 0 ? (int) size : BUFFER_SIZE);
+               IOHelper.copy(zipIn, content, BUFFER_SIZE, false);
+               entries.put(entry.getName(), content.toByteArray());
+               if (stage != null)
+               {
+                  stage.entry(content.size());
+               }
+            }
+            zipIn.closeEntry();
+         }
+      }
+      finally
+      {
+         zipIn.close();
+      }
+      if (entries.isEmpty())
+      {
+         throw notAnArchive();
+      }
+
+      if (stage != null)
+      {
+         stage.checkCancelled();
+      }
+      for (Map.Entry<String, byte[]> entry : entries.entrySet())
+      {
+         if (entry.getValue() == null)
+         {
+            report.mkdir(destDir, entry.getKey());
          }
          else
          {
-            // if the entry is a directory, make the directory
-            entryFile.mkdir();
+            report.write(destDir, entry.getKey(), entry.getValue());
          }
-         zipIn.closeEntry();
-         entry = zipIn.getNextEntry();
       }
-      zipIn.close();
    }
 
-   private static void extractFile(ZipInputStream zipIn, File file) throws IOException
+   /**
+    * A streamed body without any entry isn't an archive, e.g. an error page served with a 200, as zip streams silently
+    * skip what they don't recognize.
+    */
+   private static ZipException notAnArchive()
+   {
+      return new ZipException("The starter response isn't a zip archive or is empty");
+   }
+
+   /**
+    * Resolves the file an entry should be extracted to, rejecting entries escaping destDir (aka "zip slip") such as
+    * <tt>../../etc/passwd</tt> or absolute paths.
+    */
+   public static File resolveEntry(File destDir, String entryName) throws IOException
+   {
+      final File entryFile = new File(destDir, entryName);
+      final String destPath = destDir.getCanonicalPath();
+      final String entryPath = entryFile.getCanonicalPath();
+      if (!entryPath.equals(destPath) && !entryPath.startsWith(destPath + File.separator))
+      {
+         throw new IOException("Entry " + entryName + " is outside of the target directory " + destDir);
+      }
+      return entryFile;
+   }
+
+   private static int extractFile(ZipInputStream zipIn, File file) throws IOException
    {
-      BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(file));
-      byte[] bytesIn = new byte[BUFFER_SIZE];
-      int read;
-      while ((read = zipIn.read(bytesIn)) != -1)
+      try (OutputStream out = new FileOutputStream(file))
       {
-         bos.write(bytesIn, 0, read);
+         return IOHelper.copy(zipIn, out, BUFFER_SIZE, false);
       }
-      bos.close();
    }
 
 }
@@ -0,0 +1,863 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+
+/**
+ * An {@code application.yml} edited in place. The file is never loaded into maps and dumped again: the events of the
+ * YAML parser only locate the keys and values of each document, and the edits patch the text at these locations, so
+ * that comments, formatting, anchors and the other documents are kept as they are. The file is parsed once, the
+ * replaced values and added properties shifting the located positions, so that setting many properties doesn't parse it
+ * again for each of them.
+ * <p/>
+ * Properties are addressed by their dotted name, whether the file nests them ({@code server:} then {@code port:}) or
+ * not ({@code server.port:}). New properties are added to the deepest existing mapping of their name, in block style
+ * with the indentation of the file. Each profile document, declared by {@code spring.profiles} or
+ * {@code spring.config.activate.on-profile}, is addressed with {@link #forProfile(String)}, the methods of the file
+ * itself address the document without profile.
+ */
+public class YamlConfigFile implements ConfigFile
+{
+   private static final String[] PROFILE_KEYS = { "spring.profiles", "spring.config.activate.on-profile" };
+   private static final Pattern PLAIN_SCALAR = Pattern.compile("[A-Za-z0-9_$/.(][^#\\r\\n]*");
+   private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_\\-\\[\\]]*");
+   private static final int DEFAULT_INDENT = 2;
+
+   private final String original;
+   private final String lineSeparator;
+   private String text;
+   // the index of the text, kept up to date by the edits rather than parsed again for each of them
+   private List<Document> documents;
+
+   private YamlConfigFile(String text)
+   {
+      this.original = text;
+      this.text = text;
+      final int eol = text.indexOf('\n');
+      this.lineSeparator = eol > 0 && text.charAt(eol - 1) == '\r' ? "\r\n" : "\n";
+   }
+
+   public static YamlConfigFile parse(String text)
+   {
+      return new YamlConfigFile(text);
+   }
+
+   public static YamlConfigFile read(InputStream in) throws IOException
+   {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      IOHelper.copyAndCloseInput(in, bytes);
+      return parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Returns a view of the document of the given profile, created on the first change if the file has none. The
+    * document without profile is the default one.
+    */
+   public ConfigFile forProfile(String profile)
+   {
+      return new ProfileView(profile);
+   }
+
+   @Override
+   public String get(String key)
+   {
+      return get(key, null);
+   }
+
+   @Override
+   public void set(String key, String value)
+   {
+      set(key, value, null);
+   }
+
+   @Override
+   public void removeIf(Predicate<String> keys)
+   {
+      removeIf(keys, null);
+   }
+
+   @Override
+   public boolean isChanged()
+   {
+      return !original.equals(text);
+   }
+
+   @Override
+   public String getText()
+   {
+      return text;
+   }
+
+   @Override
+   public void write(OutputStream out) throws IOException
+   {
+      out.write(text.getBytes(StandardCharsets.UTF_8));
+   }
+
+   @Override
+   public String toString()
+   {
+      return text;
+   }
+
+   private String get(String key, String profile)
+   {
+      final Document document = findDocument(documents(), profile);
+      if (document == null || document.root == null)
+      {
+         return null;
+      }
+      final Lookup lookup = lookup(document.root, key);
+      return lookup.found != null && lookup.found.value instanceof Scalar ? ((Scalar) lookup.found.value).value
+               : null;
+   }
+
+   private void set(String key, String value, String profile)
+   {
+      final List<Document> documents = documents();
+      final Document document = findDocument(documents, profile);
+      if (document == null)
+      {
+         // a new document for the profile, then the property in it
+         final StringBuilder added = new StringBuilder(text);
+         if (!documents.isEmpty() && !text.trim().isEmpty())
+         {
+            appendLineSeparator(added);
+            added.append("---").append(lineSeparator);
+         }
+         if (profile != null)
+         {
+            added.append(render(new String[] { "spring", "profiles" }, 0, profile, 0, indentOf(documents)));
+         }
+         text = added.toString();
+         this.documents = null;
+         set(key, value, profile);
+         return;
+      }
+
+      if (document.root == null)
+      {
+         final Mapping root = new Mapping();
+         document.root = root;
+         insert(document.contentEnd, key.split("\\."), value, Collections.singletonList(root), indentOf(documents));
+         return;
+      }
+
+      final Lookup lookup = lookup(document.root, key);
+      if (lookup.found != null)
+      {
+         if (!(lookup.found.value instanceof Scalar))
+         {
+            throw new IllegalArgumentException("Property " + key + " isn't a scalar value in the YAML configuration");
+         }
+         final Scalar scalar = (Scalar) lookup.found.value;
+         if (!value.equals(scalar.value))
+         {
+            // an empty value right after the colon needs a space before the new one
+            final String prefix = scalar.start == scalar.end && scalar.start > 0
+                     && text.charAt(scalar.start - 1) == ':' ? " " : "";
+            final String formatted = formatScalar(value);
+            final int start = scalar.start;
+            final int end = scalar.block ? endOfContent(scalar.end) : scalar.end;
+            text = text.substring(0, start) + prefix + formatted + text.substring(end);
+            shift(end, prefix.length() + formatted.length() - (end - start), true);
+            scalar.start = start + prefix.length();
+            scalar.end = scalar.start + formatted.length();
+            scalar.value = value;
+            scalar.block = false;
+         }
+         return;
+      }
+
+      final Mapping parent = lookup.deepest;
+      if (parent.flow)
+      {
+         throw new IllegalArgumentException("Can't add " + key + " to a flow style mapping of the YAML configuration");
+      }
+      insert(endOfLine(parent.end), lookup.remaining, value, lookup.path, indentOf(documents));
+   }
+
+   private void removeIf(Predicate<String> keys, String profile)
+   {
+      // only from the document of the profile, the properties of the others are unrelated
+      final Document document = findDocument(documents(), profile);
+      if (document == null || document.root == null)
+      {
+         return;
+      }
+      final List<int[]> ranges = new ArrayList<>();
+      collectRemovals(document.root, "", keys, ranges);
+      // from the end so that the ranges still apply
+      ranges.sort((a, b) -> Integer.compare(b[0], a[0]));
+      final StringBuilder edited = new StringBuilder(text);
+      for (int[] range : ranges)
+      {
+         edited.delete(range[0], range[1]);
+      }
+      text = edited.toString();
+      if (!ranges.isEmpty())
+      {
+         documents = null;
+      }
+   }
+
+   /**
+    * Adds the line ranges of the entries to remove, removing a whole nested mapping when all its entries are.
+    *
+    * @return whether all the entries of the mapping are to be removed
+    */
+   private boolean collectRemovals(Mapping mapping, String prefix, Predicate<String> keys, List<int[]> ranges)
+   {
+      final List<int[]> removals = new ArrayList<>();
+      int removed = 0;
+      for (Entry entry : mapping.entries)
+      {
+         final String path = prefix + entry.key;
+         boolean remove;
+         if (entry.value instanceof Mapping && !((Mapping) entry.value).flow)
+         {
+            final List<int[]> nested = new ArrayList<>();
+            remove = collectRemovals((Mapping) entry.value, path + ".", keys, nested);
+            if (!remove)
+            {
+               removals.addAll(nested);
+            }
+         }
+         else
+         {
+            remove = keys.test(path);
+         }
+         if (remove)
+         {
+            removals.add(new int[] { startOfLine(entry.keyStart), endOfLine(entry.value.end) });
+            removed++;
+         }
+      }
+      final boolean all = removed == mapping.entries.size() && !mapping.entries.isEmpty();
+      if (!all || prefix.isEmpty())
+      {
+         ranges.addAll(removals);
+      }
+      return all && !prefix.isEmpty();
+   }
+
+   /**
+    * Finds the entry of the given dotted key, or else the deepest mapping holding a part of it.
+    */
+   private static Lookup lookup(Mapping root, String key)
+   {
+      final Lookup lookup = new Lookup();
+      Mapping mapping = root;
+      String remaining = key;
+      descend: while (true)
+      {
+         lookup.path.add(mapping);
+         for (Entry entry : mapping.entries)
+         {
+            if (remaining.equals(entry.key))
+            {
+               lookup.found = entry;
+               return lookup;
+            }
+            if (remaining.startsWith(entry.key + ".") && entry.value instanceof Mapping)
+            {
+               mapping = (Mapping) entry.value;
+               remaining = remaining.substring(entry.key.length() + 1);
+               continue descend;
+            }
+         }
+         lookup.deepest = mapping;
+         lookup.remaining = remaining.split("\\.");
+         return lookup;
+      }
+   }
+
+   private Document findDocument(List<Document> documents, String profile)
+   {
+      for (Document document : documents)
+      {
+         String documentProfile = null;
+         if (document.root != null)
+         {
+            for (String profileKey : PROFILE_KEYS)
+            {
+               final Lookup lookup = lookup(document.root, profileKey);
+               if (lookup.found != null && lookup.found.value instanceof Scalar)
+               {
+                  documentProfile = ((Scalar) lookup.found.value).value.trim();
+               }
+            }
+         }
+         if (profile == null ? documentProfile == null : profile.equals(documentProfile))
+         {
+            return document;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * The indentation of the nested mappings of the file, 2 spaces unless the file uses another one.
+    */
+   private static int indentOf(List<Document> documents)
+   {
+      for (Document document : documents)
+      {
+         if (document.root != null)
+         {
+            for (Entry entry : document.root.entries)
+            {
+               if (entry.value instanceof Mapping && !((Mapping) entry.value).flow)
+               {
+                  final int indent = ((Mapping) entry.value).column - document.root.column;
+                  if (indent > 0)
+                  {
+                     return indent;
+                  }
+               }
+            }
+         }
+      }
+      return DEFAULT_INDENT;
+   }
+
+   /**
+    * Renders the given nested keys and value as block mapping lines.
+    */
+   private String render(String[] keys, int from, String value, int column, int indent)
+   {
+      final StringBuilder lines = new StringBuilder();
+      for (int i = from; i < keys.length; i++)
+      {
+         for (int j = 0; j < column + (i - from) * indent; j++)
+         {
+            lines.append(' ');
+         }
+         lines.append(formatKey(keys[i])).append(':');
+         if (i == keys.length - 1)
+         {
+            lines.append(' ').append(formatScalar(value));
+         }
+         lines.append(lineSeparator);
+      }
+      return lines.toString();
+   }
+
+   /**
+    * Inserts the given nested keys and value as block mapping lines at the given position, in the last mapping of the
+    * given path, and adds them to the index.
+    */
+   private void insert(int position, String[] keys, String value, List<Mapping> path, int indent)
+   {
+      final Mapping parent = path.get(path.size() - 1);
+      final StringBuilder edited = new StringBuilder(text);
+      if (position == edited.length() && position > 0 && edited.charAt(position - 1) != '\n')
+      {
+         edited.append(lineSeparator);
+         position = edited.length();
+      }
+      final String lines = render(keys, 0, value, parent.column, indent);
+      edited.insert(position, lines);
+      text = edited.toString();
+      shift(position, lines.length(), false);
+
+      // the positions of the rendered lines
+      final List<Mapping> holders = new ArrayList<>(path);
+      Mapping mapping = parent;
+      int lineStart = position;
+      for (int i = 0; i < keys.length; i++)
+      {
+         final int column = parent.column + i * indent;
+         final Entry entry = new Entry();
+         entry.key = keys[i];
+         entry.keyStart = lineStart + column;
+         final int valueStart = entry.keyStart + formatKey(keys[i]).length() + 1;
+         if (mapping.entries.isEmpty())
+         {
+            mapping.start = entry.keyStart;
+            mapping.column = column;
+         }
+         mapping.entries.add(entry);
+         if (i < keys.length - 1)
+         {
+            mapping = new Mapping();
+            holders.add(mapping);
+            entry.value = mapping;
+            lineStart = valueStart + lineSeparator.length();
+         }
+         else
+         {
+            final Scalar scalar = new Scalar();
+            scalar.value = value;
+            scalar.start = valueStart + 1;
+            scalar.end = scalar.start + formatScalar(value).length();
+            entry.value = scalar;
+            // the mappings holding the added entry now end with it
+            for (Mapping holder : holders)
+            {
+               holder.end = Math.max(holder.end, scalar.end);
+            }
+         }
+      }
+   }
+
+   /**
+    * Shifts the indexed positions following an edit at the given position by the given delta. The ends at the very
+    * position are shifted when the edit replaced what precedes them, but not when it inserted lines after them.
+    */
+   private void shift(int position, int delta, boolean replaced)
+   {
+      for (Document document : documents)
+      {
+         if (document.contentEnd >= position)
+         {
+            document.contentEnd += delta;
+         }
+         if (document.root != null)
+         {
+            shift(document.root, position, delta, replaced);
+         }
+      }
+   }
+
+   private static void shift(Node node, int position, int delta, boolean replaced)
+   {
+      if (node.start >= position)
+      {
+         node.start += delta;
+      }
+      if (node.end > position || replaced && node.end == position)
+      {
+         node.end += delta;
+      }
+      if (node instanceof Mapping)
+      {
+         for (Entry entry : ((Mapping) node).entries)
+         {
+            if (entry.keyStart >= position)
+            {
+               entry.keyStart += delta;
+            }
+            shift(entry.value, position, delta, replaced);
+         }
+      }
+   }
+
+   private void appendLineSeparator(StringBuilder builder)
+   {
+      if (builder.length() > 0 && builder.charAt(builder.length() - 1) != '\n')
+      {
+         builder.append(lineSeparator);
+      }
+   }
+
+   private int startOfLine(int position)
+   {
+      final int eol = text.lastIndexOf('\n', position - 1);
+      return eol + 1;
+   }
+
+   /**
+    * Returns the position after the end of the line holding the given position, unless it is already at the start of
+    * a line as block scalars end.
+    */
+   private int endOfLine(int position)
+   {
+      if (position > 0 && text.charAt(position - 1) == '\n')
+      {
+         return position;
+      }
+      final int eol = text.indexOf('\n', position);
+      return eol < 0 ? text.length() : eol + 1;
+   }
+
+   /**
+    * Returns the position of the line break ending the content of a block scalar, which ends at the start of the next
+    * line, so that the line break is kept when the scalar is replaced.
+    */
+   private int endOfContent(int position)
+   {
+      int end = position;
+      if (end > 0 && text.charAt(end - 1) == '\n')
+      {
+         end--;
+         if (end > 0 && text.charAt(end - 1) == '\r')
+         {
+            end--;
+         }
+      }
+      return end;
+   }
+
+   static String formatScalar(String value)
+   {
+      if (value.isEmpty())
+      {
+         return "''";
+      }
+      for (char c : value.toCharArray())
+      {
+         if (c < 0x20)
+         {
+            return doubleQuoted(value);
+         }
+      }
+      final boolean plain = PLAIN_SCALAR.matcher(value).matches() && !value.contains(": ") && !value.endsWith(":")
+               && !value.endsWith(" ") && !value.contains(" #");
+      if (plain)
+      {
+         return value;
+      }
+      return "'" + value.replace("'", "''") + "'";
+   }
+
+   private static String formatKey(String key)
+   {
+      return PLAIN_KEY.matcher(key).matches() ? key : "'" + key.replace("'", "''") + "'";
+   }
+
+   private static String doubleQuoted(String value)
+   {
+      final StringBuilder quoted = new StringBuilder("\"");
+      for (char c : value.toCharArray())
+      {
+         switch (c)
+         {
+         case '"':
+            quoted.append("\\\"");
+            break;
+         case '\\':
+            quoted.append("\\\\");
+            break;
+         case '\n':
+            quoted.append("\\n");
+            break;
+         case '\r':
+            quoted.append("\\r");
+            break;
+         case '\t':
+            quoted.append("\\t");
+            break;
+         default:
+            if (c < 0x20)
+            {
+               quoted.append(String.format("\\x%02X", (int) c));
+            }
+            else
+            {
+               quoted.append(c);
+            }
+         }
+      }
+      return quoted.append('"').toString();
+   }
+
+   private List<Document> documents()
+   {
+      if (documents == null)
+      {
+         documents = index();
+      }
+      return documents;
+   }
+
+   /**
+    * Locates the documents, keys and values of the file from the events of the parser.
+    */
+   private List<Document> index()
+   {
+      final List<Document> documents = new ArrayList<>();
+      final Positions positions = new Positions(text);
+      final Iterator<Event> events = new Yaml().parse(new StringReader(text)).iterator();
+      Document document = null;
+      while (events.hasNext())
+      {
+         final Event event = events.next();
+         if (event instanceof DocumentStartEvent)
+         {
+            document = new Document();
+            document.contentEnd = text.length();
+            documents.add(document);
+         }
+         else if (event instanceof MappingStartEvent && document != null && document.root == null)
+         {
+            document.root = readMapping((MappingStartEvent) event, events, positions);
+         }
+         else if (event instanceof CollectionStartEvent)
+         {
+            skip(events);
+         }
+         else if (event instanceof DocumentEndEvent && document != null)
+         {
+            document.contentEnd = document.root != null ? endOfLine(document.root.end)
+                     : positions.of(event.getStartMark());
+         }
+         else if (event instanceof StreamEndEvent)
+         {
+            break;
+         }
+      }
+      if (documents.isEmpty())
+      {
+         // an empty file
+         final Document empty = new Document();
+         empty.contentEnd = text.length();
+         documents.add(empty);
+      }
+      return documents;
+   }
+
+   private Mapping readMapping(MappingStartEvent start, Iterator<Event> events, Positions positions)
+   {
+      final Mapping mapping = new Mapping();
+      final int startIndex = positions.of(start.getStartMark());
+      mapping.flow = startIndex < text.length() && text.charAt(startIndex) == '{';
+      mapping.end = positions.of(start.getEndMark());
+      while (true)
+      {
+         final Event keyEvent = events.next();
+         if (keyEvent instanceof MappingEndEvent)
+         {
+            return mapping;
+         }
+         final Node value = readNode(events.next(), events, positions);
+         if (keyEvent instanceof ScalarEvent)
+         {
+            final Entry entry = new Entry();
+            entry.key = ((ScalarEvent) keyEvent).getValue();
+            entry.keyStart = positions.of(keyEvent.getStartMark());
+            entry.value = value;
+            if (mapping.entries.isEmpty())
+            {
+               mapping.column = keyEvent.getStartMark().getColumn();
+            }
+            mapping.entries.add(entry);
+         }
+         else if (keyEvent instanceof CollectionStartEvent)
+         {
+            // complex keys aren't Spring Boot properties
+            skip(events);
+         }
+         mapping.end = value.end;
+      }
+   }
+
+   private Node readNode(Event event, Iterator<Event> events, Positions positions)
+   {
+      if (event instanceof MappingStartEvent)
+      {
+         return readMapping((MappingStartEvent) event, events, positions);
+      }
+      final int start = positions.of(event.getStartMark());
+      final Node node;
+      if (event instanceof ScalarEvent)
+      {
+         final Scalar scalar = new Scalar();
+         scalar.value = ((ScalarEvent) event).getValue();
+         // a literal or folded scalar starts with its indicator
+         scalar.block = start < text.length() && (text.charAt(start) == '|' || text.charAt(start) == '>');
+         node = scalar;
+      }
+      else
+      {
+         node = new Node();
+      }
+      node.start = start;
+      node.end = event instanceof CollectionStartEvent ? skip(events, positions) : positions.of(event.getEndMark());
+      return node;
+   }
+
+   /**
+    * Skips the rest of the collection just started, returning where it ends.
+    */
+   private static int skip(Iterator<Event> events, Positions positions)
+   {
+      int depth = 1;
+      Event event = null;
+      while (depth > 0)
+      {
+         event = events.next();
+         if (event instanceof CollectionStartEvent)
+         {
+            depth++;
+         }
+         else if (event instanceof CollectionEndEvent)
+         {
+            depth--;
+         }
+      }
+      return positions.of(event.getEndMark());
+   }
+
+   private static void skip(Iterator<Event> events)
+   {
+      int depth = 1;
+      while (depth > 0)
+      {
+         final Event event = events.next();
+         if (event instanceof CollectionStartEvent)
+         {
+            depth++;
+         }
+         else if (event instanceof CollectionEndEvent)
+         {
+            depth--;
+         }
+      }
+   }
+
+   /**
+    * Converts the code point indexes of the parser marks to string indexes.
+    */
+   private static class Positions
+   {
+      private final int length;
+      // the string index of each code point, only when they differ
+      private final int[] offsets;
+
+      Positions(String text)
+      {
+         final int codePoints = text.codePointCount(0, text.length());
+         this.length = codePoints;
+         if (codePoints == text.length())
+         {
+            this.offsets = null;
+         }
+         else
+         {
+            this.offsets = new int[codePoints + 1];
+            for (int i = 0, offset = 0; i < codePoints; i++)
+            {
+               offsets[i] = offset;
+               offset += Character.charCount(text.codePointAt(offset));
+            }
+            offsets[codePoints] = text.length();
+         }
+      }
+
+      int of(Mark mark)
+      {
+         final int index = Math.min(mark.getIndex(), length);
+         return offsets == null ? index : offsets[index];
+      }
+   }
+
+   private static class Document
+   {
+      private Mapping root;
+      // where to add the first property of a document without any
+      private int contentEnd;
+   }
+
+   private static class Node
+   {
+      int start;
+      int end;
+   }
+
+   private static class Scalar extends Node
+   {
+      private String value;
+      private boolean block;
+   }
+
+   private static class Mapping extends Node
+   {
+      private final List<Entry> entries = new ArrayList<>();
+      private boolean flow;
+      private int column;
+   }
+
+   private static class Entry
+   {
+      private String key;
+      private int keyStart;
+      private Node value;
+   }
+
+   private static class Lookup
+   {
+      // the mappings descended into
+      private final List<Mapping> path = new ArrayList<>();
+      private Entry found;
+      private Mapping deepest;
+      private String[] remaining;
+   }
+
+   /**
+    * The document of a profile
+    */
+   private class ProfileView implements ConfigFile
+   {
+      private final String profile;
+
+      ProfileView(String profile)
+      {
+         this.profile = profile;
+      }
+
+      @Override
+      public String get(String key)
+      {
+         return YamlConfigFile.this.get(key, profile);
+      }
+
+      @Override
+      public void set(String key, String value)
+      {
+         YamlConfigFile.this.set(key, value, profile);
+      }
+
+      @Override
+      public void removeIf(Predicate<String> keys)
+      {
+         YamlConfigFile.this.removeIf(keys, profile);
+      }
+
+      @Override
+      public boolean isChanged()
+      {
+         return YamlConfigFile.this.isChanged();
+      }
+
+      @Override
+      public String getText()
+      {
+         return text;
+      }
+
+      @Override
+      public void write(OutputStream out) throws IOException
+      {
+         YamlConfigFile.this.write(out);
+      }
+   }
+}
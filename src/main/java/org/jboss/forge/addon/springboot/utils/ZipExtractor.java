@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts a zip file using its central directory rather than walking it sequentially: all the directories are created
+ * up front, then the file entries are written in parallel on a bounded pool, each one with a buffer sized from the
+ * entry's known uncompressed size (capped and reused per thread by {@link IOHelper}).
+ */
+public class ZipExtractor
+{
+
+   /**
+    * Buffer size used when the size of an entry isn't recorded in the central directory
+    */
+   private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+   /**
+    * Upper cap of the extraction pool, writing more files concurrently doesn't pay off on a single disk
+    */
+   private static final int MAX_PARALLELISM = 8;
+
+   /**
+    * Extracts the given zip file to destDir (will be created if does not exists) using the default parallelism.
+    *
+    * @return the number of extracted files
+    */
+   public static int extract(File zip, File destDir) throws IOException
+   {
+      return extract(zip, destDir, null);
+   }
+
+   /**
+    * Extracts the given zip file to destDir (will be created if does not exists) using the default parallelism,
+    * reporting the extracted entries to the given stage, if any.
+    *
+    * @return the number of extracted files
+    */
+   public static int extract(File zip, File destDir, SetupProgress.Stage stage) throws IOException
+   {
+      return extract(zip, destDir, Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM), stage);
+   }
+
+   /**
+    * Extracts the given zip file to destDir (will be created if does not exists) writing at most parallelism files at
+    * the same time.
+    *
+    * @return the number of extracted files
+    */
+   public static int extract(File zip, File destDir, int parallelism) throws IOException
+   {
+      return extract(zip, destDir, parallelism, null);
+   }
+
+   /**
+    * Extracts the given zip file to destDir (will be created if does not exists) writing at most parallelism files at
+    * the same time and reporting the extracted entries to the given stage, if any.
+    *
+    * @return the number of extracted files
+    */
+   public static int extract(File zip, File destDir, int parallelism, SetupProgress.Stage stage) throws IOException
+   {
+      try (ZipFile zipFile = new ZipFile(zip))
+      {
+         // sorted so that parents are created before their children
+         final Set<File> directories = new TreeSet<>();
+         final List<ZipEntry> files = new ArrayList<>(zipFile.size());
+         directories.add(destDir);
+
+         final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+         while (entries.hasMoreElements())
+         {
+            final ZipEntry entry = entries.nextElement();
+            final File target = UnzipHelper.resolveEntry(destDir, entry.getName());
+            if (entry.isDirectory())
+            {
+               directories.add(target);
+            }
+            else
+            {
+               directories.add(target.getParentFile());
+               files.add(entry);
+            }
+         }
+
+         if (stage != null)
+         {
+            stage.setTotalEntries(files.size());
+         }
+         for (File directory : directories)
+         {
+            if (!directory.isDirectory() && !directory.mkdirs())
+            {
+               throw new IOException("Couldn't create directory " + directory);
+            }
+         }
+
+         final int threads = Math.max(1, Math.min(parallelism, files.size()));
+         if (threads == 1)
+         {
+            for (ZipEntry entry : files)
+            {
+               extractFile(zipFile, entry, destDir, stage);
+            }
+            return files.size();
+         }
+
+         final ExecutorService pool = Executors.newFixedThreadPool(threads);
+         try
+         {
+            final List<Future<Void>> results = new ArrayList<>(files.size());
+            for (ZipEntry entry : files)
+            {
+               results.add(pool.submit((Callable<Void>) () -> {
+                  extractFile(zipFile, entry, destDir, stage);
+                  return null;
+               }));
+            }
+            for (Future<Void> result : results)
+            {
+               result.get();
+            }
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction of " + zip + " was interrupted", e);
+         }
+         catch (ExecutionException e)
+         {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+               throw (IOException) cause;
+            }
+            throw new IOException("Couldn't extract " + zip, cause);
+         }
+         finally
+         {
+            // the entries still being written must be closed before the caller removes the extracted files
+            pool.shutdownNow();
+            awaitTermination(pool);
+         }
+         return files.size();
+      }
+   }
+
+   private static void awaitTermination(ExecutorService pool)
+   {
+      boolean interrupted = false;
+      while (!pool.isTerminated())
+      {
+         try
+         {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+         }
+         catch (InterruptedException e)
+         {
+            interrupted = true;
+         }
+      }
+      if (interrupted)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private static void extractFile(ZipFile zipFile, ZipEntry entry, File destDir, SetupProgress.Stage stage)
+            throws IOException
+   {
+      if (stage != null)
+      {
+         stage.checkCancelled();
+      }
+      final File file = UnzipHelper.resolveEntry(destDir, entry.getName());
+      final long size = entry.getSize();
+      final int bufferSize = size < 0 ? DEFAULT_BUFFER_SIZE : (int) Math.min(size, Integer.MAX_VALUE);
+      try (InputStream in = zipFile.getInputStream(entry); OutputStream out = new FileOutputStream(file))
+      {
+         final int copied = IOHelper.copy(in, out, bufferSize, false);
+         if (stage != null)
+         {
+            stage.entry(copied);
+         }
+      }
+   }
+
+}
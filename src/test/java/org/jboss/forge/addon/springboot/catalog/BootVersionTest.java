@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BootVersionTest
+{
+   @Test
+   public void ordersTheQualifiers()
+   {
+      assertOrdered("1.5.0.M1", "1.5.0.M2", "1.5.0.RC1", "1.5.0.BUILD-SNAPSHOT", "1.5.0.RELEASE", "1.5.1.M1");
+   }
+
+   @Test
+   public void ordersTheVersionNumbers()
+   {
+      assertOrdered("1.2.8.RELEASE", "1.3.0.M1", "1.3.0.RELEASE", "1.4.7.RELEASE", "1.5.4.RELEASE", "1.5.10.RELEASE",
+               "2.0.0.M1", "2.0.0.RELEASE", "10.0.0.RELEASE");
+   }
+
+   @Test
+   public void placesTheWildcardsAfterTheirVersions()
+   {
+      assertOrdered("1.4.7.RELEASE", "1.4.x.RELEASE", "1.5.0.M1", "1.5.4.RELEASE", "1.5.x.BUILD-SNAPSHOT",
+               "1.5.x.RELEASE", "2.0.0.M1");
+      assertTrue(BootVersion.parse("1.x").compareTo(BootVersion.parse("1.99.99.RELEASE")) > 0);
+   }
+
+   @Test
+   public void readsVersionsWithoutQualifierAsReleases()
+   {
+      assertEquals(BootVersion.parse("1.5.4.RELEASE"), BootVersion.parse("1.5.4"));
+      assertEquals(BootVersion.parse("2.0.0.RELEASE"), BootVersion.parse("2.0"));
+      assertEquals(BootVersion.parse("1.5.4.RELEASE").hashCode(), BootVersion.parse("1.5.4").hashCode());
+      assertEquals(BootVersion.parse("2.0.0.RELEASE"), BootVersion.parse("2.0.0.Final"));
+   }
+
+   @Test
+   public void readsOtherSnapshotsAsBuildSnapshots()
+   {
+      assertEquals(BootVersion.parse("2.0.0.BUILD-SNAPSHOT"), BootVersion.parse("2.0.0-SNAPSHOT"));
+      assertOrdered("2.0.0.RC1", "2.0.0-SNAPSHOT", "2.0.0");
+   }
+
+   @Test
+   public void keepsTheText()
+   {
+      assertEquals("1.5.4.RELEASE", BootVersion.parse(" 1.5.4.RELEASE ").toString());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesOtherVersions()
+   {
+      BootVersion.parse("${spring-boot.version}");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesMissingMinorVersions()
+   {
+      BootVersion.parse("1");
+   }
+
+   private static void assertOrdered(String... versions)
+   {
+      final List<BootVersion> expected = new ArrayList<>();
+      for (String version : versions)
+      {
+         expected.add(BootVersion.parse(version));
+      }
+      final List<BootVersion> sorted = new ArrayList<>(expected);
+      Collections.reverse(sorted);
+      Collections.sort(sorted);
+      assertEquals(Arrays.toString(versions), expected, sorted);
+      for (int i = 1; i < expected.size(); i++)
+      {
+         assertTrue(versions[i - 1] + " < " + versions[i], expected.get(i - 1).compareTo(expected.get(i)) < 0);
+      }
+   }
+}
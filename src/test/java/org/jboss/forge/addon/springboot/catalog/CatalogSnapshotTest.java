@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.junit.Test;
+
+public class CatalogSnapshotTest
+{
+   @Test
+   public void readsWhatWasWrittenFromTheBundledCatalog() throws IOException
+   {
+      final List<SpringBootDependencyDTO> parsed;
+      try (InputStream in = getClass().getResourceAsStream("/spring-boot-application.yaml"))
+      {
+         parsed = CatalogParser.parseYaml(in);
+      }
+      assertTrue(parsed.stream().anyMatch(dto -> dto.getBom() != null));
+      assertEquals(describe(parsed), describe(roundTrip(parsed)));
+   }
+
+   @Test
+   public void keepsTheMissingValues() throws IOException
+   {
+      final List<SpringBootDependencyDTO> parsed = CatalogParser.parseYaml(new StringReader("initializr:\n"
+               + "  dependencies:\n"
+               + "    - name: Cloud\n"
+               + "      bom: spring-cloud\n"
+               + "      content:\n"
+               + "        - name: Config Client\n"
+               + "          id: cloud-config-client\n"
+               + "          groupId: org.springframework.cloud\n"
+               + "          artifactId: spring-cloud-starter-config\n"
+               + "    - name: Other\n"
+               + "      content:\n"
+               + "        - name: H2\n"
+               + "          id: h2\n"
+               + "          groupId: com.h2database\n"
+               + "          artifactId: h2\n"
+               + "          scope: runtime\n"
+               + "          starter: false\n"
+               + "          facets:\n"
+               + "            - jpa\n"
+               + "            - database\n"
+               + "        - name: Web\n"
+               + "          id: web\n"
+               + "          versionRange: 1.3.0.RELEASE\n"));
+      assertEquals(3, parsed.size());
+      assertEquals(describe(parsed), describe(roundTrip(parsed)));
+   }
+
+   private static List<SpringBootDependencyDTO> roundTrip(List<SpringBootDependencyDTO> dependencies)
+            throws IOException
+   {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      CatalogSnapshot.write(dependencies, out);
+      return CatalogSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+   }
+
+   /**
+    * Returns all the fields of the given dependencies, as the DTO doesn't implement equals.
+    */
+   private static List<List<Object>> describe(List<SpringBootDependencyDTO> dependencies)
+   {
+      final List<List<Object>> fields = new ArrayList<>();
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         fields.add(Arrays.asList(dto.getGroup(), dto.getId(), dto.getName(), dto.getDescription(), dto.getGroupId(),
+                  dto.getArtifactId(), dto.getVersion(), dto.getVersionRange(), dto.isStarter(), dto.getScope(),
+                  dto.getBom(), dto.getFacets()));
+      }
+      return fields;
+   }
+}
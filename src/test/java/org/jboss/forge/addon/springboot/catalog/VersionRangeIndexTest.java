@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.forge.addon.springboot.dto.SpringBootDependencyDTO;
+import org.junit.Test;
+
+public class VersionRangeIndexTest
+{
+   // the bounds 1.3.0.RELEASE, 1.4.0.M1, 1.5.x.RELEASE and 2.0.0.M1 make 9 slots
+   private static final List<SpringBootDependencyDTO> DEPENDENCIES = Arrays.asList(
+            dependency("any", null),
+            dependency("from-1.3", "1.3.0.RELEASE"),
+            dependency("inclusive", "[1.3.0.RELEASE,1.4.0.M1]"),
+            dependency("exclusive", "(1.3.0.RELEASE,1.4.0.M1)"),
+            dependency("open", "[1.4.0.M1,)"),
+            dependency("boot-1", "[1.3.0.RELEASE,1.5.x.RELEASE]"),
+            dependency("boot-2", "2.0.0.M1"),
+            dependency("invalid", "[latest,)"));
+
+   private static final String[] VERSIONS = { "1.2.8.RELEASE", "1.3.0.RC1", "1.3.0.RELEASE", "1.3.8.RELEASE",
+            "1.4.0.M1", "1.4.0.M2", "1.4.7.RELEASE", "1.5.4.RELEASE", "1.5.x.RELEASE", "2.0.0.BUILD-SNAPSHOT",
+            "2.0.0.M1", "2.0.0.RELEASE", "3.0.0.RELEASE" };
+
+   private final VersionRangeIndex index = new VersionRangeIndex(DEPENDENCIES);
+
+   @Test
+   public void findsTheDependenciesOfEachSlot()
+   {
+      // below all the bounds: slot 0
+      assertIds("1.2.8.RELEASE", "any", "invalid");
+      // the inclusive lower bound 1.3.0.RELEASE: slot 1
+      assertIds("1.3.0.RELEASE", "any", "from-1.3", "inclusive", "boot-1", "invalid");
+      // between 1.3.0.RELEASE and 1.4.0.M1: slot 2
+      assertIds("1.3.8.RELEASE", "any", "from-1.3", "inclusive", "exclusive", "boot-1", "invalid");
+      // the bound 1.4.0.M1, inclusive upper bound of one range, exclusive of another: slot 3
+      assertIds("1.4.0.M1", "any", "from-1.3", "inclusive", "open", "boot-1", "invalid");
+      // the bound 1.5.x.RELEASE: slot 5
+      assertIds("1.5.x.RELEASE", "any", "from-1.3", "open", "boot-1", "invalid");
+      // above all the bounds: the last slot
+      assertIds("3.0.0.RELEASE", "any", "from-1.3", "open", "boot-2", "invalid");
+   }
+
+   @Test
+   public void matchesTheVersionRanges()
+   {
+      for (String text : VERSIONS)
+      {
+         final BootVersion version = BootVersion.parse(text);
+         final List<SpringBootDependencyDTO> expected = new ArrayList<>();
+         for (SpringBootDependencyDTO dto : DEPENDENCIES)
+         {
+            if (isAvailable(dto, version))
+            {
+               expected.add(dto);
+            }
+         }
+         assertEquals(text, ids(expected), ids(index.get(version)));
+      }
+   }
+
+   @Test
+   public void indexesCatalogsWithoutRanges()
+   {
+      final VersionRangeIndex empty = new VersionRangeIndex(Arrays.asList(dependency("a", null),
+               dependency("b", null)));
+      assertEquals(Arrays.asList("a", "b"), ids(empty.get(BootVersion.parse("1.5.4.RELEASE"))));
+   }
+
+   private void assertIds(String version, String... ids)
+   {
+      assertEquals(version, Arrays.asList(ids), ids(index.get(BootVersion.parse(version))));
+   }
+
+   private static boolean isAvailable(SpringBootDependencyDTO dto, BootVersion version)
+   {
+      try
+      {
+         return dto.getVersionRange() == null || VersionRange.parse(dto.getVersionRange()).contains(version);
+      }
+      catch (IllegalArgumentException e)
+      {
+         return true;
+      }
+   }
+
+   private static List<String> ids(List<SpringBootDependencyDTO> dependencies)
+   {
+      final List<String> ids = new ArrayList<>();
+      for (SpringBootDependencyDTO dto : dependencies)
+      {
+         ids.add(dto.getId());
+      }
+      return ids;
+   }
+
+   private static SpringBootDependencyDTO dependency(String id, String versionRange)
+   {
+      final SpringBootDependencyDTO dto = new SpringBootDependencyDTO("Test", id, id, null);
+      dto.setVersionRange(versionRange);
+      return dto;
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class VersionRangeTest
+{
+   @Test
+   public void parsesASingleVersionAsALowerBound()
+   {
+      final VersionRange range = VersionRange.parse("1.4.0.RELEASE");
+      assertEquals(BootVersion.parse("1.4.0.RELEASE"), range.getLower());
+      assertTrue(range.isLowerInclusive());
+      assertNull(range.getUpper());
+      assertEquals(">=1.4.0.RELEASE", range.toString());
+
+      assertFalse(range.contains(BootVersion.parse("1.4.0.RC1")));
+      assertTrue(range.contains(BootVersion.parse("1.4.0.RELEASE")));
+      assertTrue(range.contains(BootVersion.parse("2.0.0.M1")));
+   }
+
+   @Test
+   public void parsesIntervals()
+   {
+      final VersionRange range = VersionRange.parse(" [1.2.0.RELEASE, 1.4.0.M1) ");
+      assertEquals(BootVersion.parse("1.2.0.RELEASE"), range.getLower());
+      assertTrue(range.isLowerInclusive());
+      assertEquals(BootVersion.parse("1.4.0.M1"), range.getUpper());
+      assertFalse(range.isUpperInclusive());
+      assertEquals("[1.2.0.RELEASE,1.4.0.M1)", range.toString());
+
+      assertFalse(range.contains(BootVersion.parse("1.2.0.RC1")));
+      assertTrue(range.contains(BootVersion.parse("1.2.0.RELEASE")));
+      assertTrue(range.contains(BootVersion.parse("1.3.8.RELEASE")));
+      assertFalse(range.contains(BootVersion.parse("1.4.0.M1")));
+   }
+
+   @Test
+   public void honoursTheInclusiveness()
+   {
+      final VersionRange range = VersionRange.parse("(1.3.0.RELEASE,1.5.x.RELEASE]");
+      assertFalse(range.isLowerInclusive());
+      assertTrue(range.isUpperInclusive());
+      assertFalse(range.contains(BootVersion.parse("1.3.0.RELEASE")));
+      assertTrue(range.contains(BootVersion.parse("1.3.1.RELEASE")));
+      assertTrue(range.contains(BootVersion.parse("1.5.x.RELEASE")));
+      assertTrue(range.contains(BootVersion.parse("1.5.99.RELEASE")));
+      assertFalse(range.contains(BootVersion.parse("2.0.0.M1")));
+   }
+
+   @Test
+   public void parsesOpenUpperBounds()
+   {
+      final VersionRange range = VersionRange.parse("[2.0.0.M1,)");
+      assertNull(range.getUpper());
+      assertTrue(range.contains(BootVersion.parse("2.0.0.M1")));
+      assertTrue(range.contains(BootVersion.parse("3.0.0.RELEASE")));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesIntervalsWithoutComma()
+   {
+      VersionRange.parse("[1.2.0.RELEASE]");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesUnclosedIntervals()
+   {
+      VersionRange.parse("[1.2.0.RELEASE,1.4.0.M1");
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesInvalidBounds()
+   {
+      VersionRange.parse("[1.2.0.RELEASE,latest)");
+   }
+}
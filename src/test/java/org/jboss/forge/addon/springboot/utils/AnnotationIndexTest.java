@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AnnotationIndexTest
+{
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void findsTheAnnotationsOfTheCode()
+   {
+      assertEquals(new HashSet<>(Arrays.asList("SpringBootApplication", "Override", "Deprecated")),
+               AnnotationIndex.scan("@SpringBootApplication\npublic class Demo {\n"
+                        + "   @Override @Deprecated(since = \"1\")\n   public String toString() { return \"\"; }\n}\n"));
+   }
+
+   @Test
+   public void skipsTheAnnotationsInComments()
+   {
+      assertEquals(Collections.emptySet(), AnnotationIndex.scan("// @SpringBootApplication\n"
+               + "/* @Configuration\n * @Bean */\n/** {@link Demo} @see Demo */\npublic class Demo {}\n"));
+      assertEquals(Collections.singleton("Service"), AnnotationIndex.scan("/* @Configuration */ @Service class A {}"));
+   }
+
+   @Test
+   public void skipsTheAnnotationsInLiterals()
+   {
+      assertEquals(Collections.singleton("Component"), AnnotationIndex.scan("@Component class A {\n"
+               + "   String mail = \"admin@Configuration\";\n   String quoted = \"\\\" @Bean\";\n   char at = '@';\n"
+               + "   char quote = '\\'';\n   String other = \"@Service\";\n}\n"));
+   }
+
+   @Test
+   public void doesntTakeAnnotationTypesForAnnotations()
+   {
+      assertEquals(Collections.singleton("Retention"), AnnotationIndex.scan("@Retention(RUNTIME)\n"
+               + "public @interface Marker {}\n"));
+   }
+
+   @Test
+   public void knowsQualifiedAnnotationsByTheirSimpleName()
+   {
+      assertEquals(Collections.singleton("SpringBootApplication"), AnnotationIndex.scan(
+               "@org.springframework.boot.autoconfigure.SpringBootApplication\npublic class Demo {}\n"));
+   }
+
+   @Test
+   public void readsTheChangedSourcesAgain() throws IOException
+   {
+      final File root = folder.newFolder("src");
+      final File demo = write(new File(root, "com/example/Demo.java"), "@SpringBootApplication class Demo {}");
+      final File other = write(new File(root, "com/example/Other.java"), "@Component class Other {}");
+      final AnnotationIndex index = AnnotationIndex.of(root);
+      assertEquals(demo, index.findFirst("SpringBootApplication"));
+      assertEquals("com.example", index.getPackage(demo));
+
+      // same size, only the modification time tells that it changed
+      final long length = demo.length();
+      write(demo, "@EnableAutoConfiguration class Dm {}");
+      assertEquals(length, demo.length());
+      assertTrue(demo.setLastModified(demo.lastModified() - 10000));
+      write(other, "@SpringBootApplication class Other {}");
+      assertEquals(other, index.findFirst("SpringBootApplication"));
+      assertEquals(Arrays.asList(demo), index.find("EnableAutoConfiguration"));
+
+      assertTrue(other.delete());
+      assertNull(index.findFirst("SpringBootApplication"));
+      assertFalse(index.find("EnableAutoConfiguration").isEmpty());
+   }
+
+   private static File write(File file, String content) throws IOException
+   {
+      file.getParentFile().mkdirs();
+      Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+      return file;
+   }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class PropertiesFileTest
+{
+   private static final String SAMPLE = "# comment\r\n"
+            + "! other comment \\\r\n"
+            + "\r\n"
+            + "server.port = 8080\r\n"
+            + "spring.application.name:demo\r\n"
+            + "   indented\\ key   value with spaces  \r\n"
+            + "list=a,\\\r\n"
+            + "     b,\\\r\n"
+            + "     c\r\n"
+            + "escaped=tab\\there\\nnew line \\\\ \\u00e9t\\u00E9\r\n"
+            + "separator-less\r\n"
+            + "whitespace-separated value\r\n"
+            + "duplicate=first\r\n"
+            + "duplicate=second\r\n"
+            + "latin1=\u00e9t\u00e9\r\n"
+            + "last=no line terminator";
+
+   @Test
+   public void readsLikeJavaUtilProperties() throws IOException
+   {
+      final Properties expected = new Properties();
+      expected.load(new StringReader(SAMPLE));
+      final Map<Object, Object> actual = new HashMap<>(PropertiesFile.parse(SAMPLE).asMap());
+      assertEquals(new HashMap<>(expected), actual);
+   }
+
+   @Test
+   public void readsContinuations()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      assertEquals("a,b,c", file.get("list"));
+      // a comment isn't continued by a trailing backslash
+      assertEquals("8080", file.get("server.port"));
+      assertEquals("trailing", PropertiesFile.parse("key=trailing\\").get("key"));
+      // an even number of backslashes is an escaped backslash, not a continuation
+      assertEquals("a\\", PropertiesFile.parse("key=a\\\\\nother=b\n").get("key"));
+   }
+
+   @Test
+   public void readsEscapes()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      assertEquals("tab\there\nnew line \\ \u00e9t\u00e9", file.get("escaped"));
+      assertEquals("value with spaces  ", file.get("indented key"));
+      assertEquals("\u00e9t\u00e9", file.get("latin1"));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesMalformedUnicodeEscapes()
+   {
+      PropertiesFile.parse("key=\\u00g1\n");
+   }
+
+   @Test
+   public void readsKeysWithoutSeparator()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      assertEquals("", file.get("separator-less"));
+      assertEquals("value", file.get("whitespace-separated"));
+   }
+
+   @Test
+   public void lastDuplicateWins()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      assertEquals("second", file.get("duplicate"));
+      file.set("duplicate", "third");
+      assertTrue(file.getText().contains("duplicate=first\r\nduplicate=third\r\n"));
+      file.remove("duplicate");
+      assertNull(file.get("duplicate"));
+      assertFalse(file.getText().contains("duplicate"));
+   }
+
+   @Test
+   public void writesUnchangedFilesByteForByte() throws IOException
+   {
+      final byte[] bytes = SAMPLE.getBytes(StandardCharsets.ISO_8859_1);
+      final PropertiesFile file = PropertiesFile.read(new ByteArrayInputStream(bytes));
+      file.set("server.port", "8080");
+      file.set("list", "a,b,c");
+      file.removeIf(key -> key.equals("unknown"));
+      assertFalse(file.isChanged());
+      final ByteArrayOutputStream written = new ByteArrayOutputStream();
+      file.write(written);
+      assertArrayEquals(bytes, written.toByteArray());
+   }
+
+   @Test
+   public void rewritesOnlyTheChangedValues()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      file.set("server.port", "9090");
+      file.set("list", "d");
+      file.set("separator-less", "set");
+      file.set("whitespace-separated", "other");
+      assertTrue(file.isChanged());
+      assertEquals(SAMPLE.replace("server.port = 8080", "server.port = 9090")
+               .replace("list=a,\\\r\n     b,\\\r\n     c\r\n", "list=d\r\n")
+               .replace("separator-less\r\n", "separator-less=set\r\n")
+               .replace("whitespace-separated value", "whitespace-separated other"), file.getText());
+   }
+
+   @Test
+   public void appendsWithTheLineSeparatorOfTheFile()
+   {
+      final PropertiesFile file = PropertiesFile.parse(SAMPLE);
+      file.set("new.key", "v");
+      assertTrue(file.getText().endsWith("last=no line terminator\r\nnew.key=v\r\n"));
+
+      final PropertiesFile unix = PropertiesFile.parse("a=1\n");
+      unix.set("b", "2");
+      assertEquals("a=1\nb=2\n", unix.getText());
+   }
+
+   @Test
+   public void escapesWrittenKeysAndValues() throws IOException
+   {
+      final PropertiesFile file = PropertiesFile.parse("");
+      file.set("key with=separators:", " leading space, tab\t and \u20ac");
+      file.set("#comment-like", "#value");
+      assertEquals("key\\ with\\=separators\\:=\\ leading space, tab\\t and \\u20AC", file.getText().split("\r?\n")[0]);
+
+      final Properties reread = new Properties();
+      reread.load(new ByteArrayInputStream(file.getBytes()));
+      assertEquals(" leading space, tab\t and \u20ac", reread.getProperty("key with=separators:"));
+      assertEquals("#value", reread.getProperty("#comment-like"));
+   }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UnzipHelperTest
+{
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void resolvesEntriesInTheTargetDirectory() throws IOException
+   {
+      final File target = folder.newFolder("target");
+      assertEquals(new File(target, "pom.xml"), UnzipHelper.resolveEntry(target, "pom.xml"));
+      assertEquals(new File(target, "src/main/java/A.java"), UnzipHelper.resolveEntry(target, "src/main/java/A.java"));
+      assertEquals(new File(target, "src/../pom.xml"), UnzipHelper.resolveEntry(target, "src/../pom.xml"));
+      assertEquals(new File(target, "src/"), UnzipHelper.resolveEntry(target, "src/"));
+   }
+
+   @Test
+   public void refusesEntriesOutsideOfTheTargetDirectory() throws IOException
+   {
+      final File target = folder.newFolder("target");
+      for (String name : new String[] { "../evil.sh", "src/../../evil.sh", "../target-sibling/evil.sh", ".." })
+      {
+         try
+         {
+            UnzipHelper.resolveEntry(target, name);
+            fail("Accepted " + name);
+         }
+         catch (IOException e)
+         {
+            // expected
+         }
+      }
+   }
+
+   @Test
+   public void refusesArchivesEscapingTheTargetDirectory() throws IOException
+   {
+      final File target = folder.newFolder("target");
+      final byte[] archive = zip("pom.xml", "<project/>", "../evil.sh", "rm -rf /");
+      try
+      {
+         UnzipHelper.unzip(new ByteArrayInputStream(archive), target);
+         fail("Extracted an entry outside of the target directory");
+      }
+      catch (IOException e)
+      {
+         assertFalse(new File(folder.getRoot(), "evil.sh").exists());
+      }
+   }
+
+   @Test(expected = ZipException.class)
+   public void refusesContentThatIsntAnArchive() throws IOException
+   {
+      UnzipHelper.unzip(new ByteArrayInputStream("<html>Error</html>".getBytes(StandardCharsets.UTF_8)),
+               folder.newFolder("target"));
+   }
+
+   @Test
+   public void revertsOnlyWhatTheOverlayAdded() throws IOException
+   {
+      final File target = folder.newFolder("target");
+      final File pom = new File(target, "pom.xml");
+      Files.write(pom.toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+      final File readme = new File(target, "src/README");
+      readme.getParentFile().mkdirs();
+      Files.write(readme.toPath(), "mine".getBytes(StandardCharsets.UTF_8));
+
+      final OverlayReport report = new OverlayReport();
+      UnzipHelper.overlay(new ByteArrayInputStream(zip("pom.xml", "<project/>", "src/main/java/A.java", "class A {}",
+               "mvnw", "#!/bin/sh")), target, null, report);
+      assertEquals(Arrays.asList("src/main/", "src/main/java/", "src/main/java/A.java", "mvnw"), report.getAdded());
+      assertEquals(Arrays.asList("pom.xml"), report.getUnchanged());
+
+      // a file created meanwhile in an added folder keeps it
+      final File other = new File(target, "src/main/other.txt");
+      Files.write(other.toPath(), "other".getBytes(StandardCharsets.UTF_8));
+      report.revert(target);
+      assertFalse(new File(target, "mvnw").exists());
+      assertFalse(new File(target, "src/main/java").exists());
+      assertTrue(other.isFile());
+      assertTrue(pom.isFile());
+      assertTrue(readme.isFile());
+   }
+
+   /**
+    * Returns an archive of the given entry names and contents.
+    */
+   static byte[] zip(String... entries) throws IOException
+   {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ZipOutputStream zip = new ZipOutputStream(bytes))
+      {
+         for (int i = 0; i < entries.length; i += 2)
+         {
+            zip.putNextEntry(new ZipEntry(entries[i]));
+            if (entries[i + 1] != null)
+            {
+               zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+            }
+            zip.closeEntry();
+         }
+      }
+      return bytes.toByteArray();
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class YamlConfigFileTest
+{
+   @Test
+   public void readsNestedAndDottedKeys()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("server:\n  port: 8080\nspring.application.name: demo\n"
+               + "spring:\n  jpa.show-sql: true\n");
+      assertEquals("8080", file.get("server.port"));
+      assertEquals("demo", file.get("spring.application.name"));
+      assertEquals("true", file.get("spring.jpa.show-sql"));
+      assertNull(file.get("server"));
+      assertNull(file.get("server.address"));
+   }
+
+   @Test
+   public void replacesValuesInPlace()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("# the server\nserver:\n  port: 8080 # default\n"
+               + "spring.application.name: demo\n");
+      file.set("server.port", "9090");
+      file.set("spring.application.name", "orders");
+      assertEquals("# the server\nserver:\n  port: 9090 # default\nspring.application.name: orders\n",
+               file.getText());
+   }
+
+   @Test
+   public void addsToTheDeepestMapping()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("spring:\n    datasource:\n        url: jdbc:h2:mem:test\n"
+               + "server:\n    port: 8080\n");
+      file.set("spring.datasource.username", "sa");
+      file.set("spring.jpa.show-sql", "true");
+      file.set("management.port", "9000");
+      assertEquals("spring:\n    datasource:\n        url: jdbc:h2:mem:test\n        username: sa\n"
+               + "    jpa:\n        show-sql: true\nserver:\n    port: 8080\nmanagement:\n    port: 9000\n",
+               file.getText());
+   }
+
+   @Test
+   public void settingTheSameValueLeavesTheTextIdentical()
+   {
+      String text = "server:\n  port: '8080'   # quoted\n\n# trailing comment\n";
+      YamlConfigFile file = YamlConfigFile.parse(text);
+      file.set("server.port", "8080");
+      assertFalse(file.isChanged());
+      assertEquals(text, file.getText());
+   }
+
+   @Test
+   public void createsAProfileDocument()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("server:\n  port: 8080\n");
+      file.forProfile("perf").set("server.tomcat.max-threads", "50");
+      assertEquals("server:\n  port: 8080\n---\nspring:\n  profiles: perf\nserver:\n  tomcat:\n    max-threads: 50\n",
+               file.getText());
+      assertEquals("8080", file.get("server.port"));
+      assertNull(file.get("server.tomcat.max-threads"));
+      assertEquals("50", file.forProfile("perf").get("server.tomcat.max-threads"));
+   }
+
+   @Test
+   public void editsTheExistingProfileDocument()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("server:\n  port: 8080\n---\nspring:\n  config:\n    activate:\n"
+               + "      on-profile: dev\nserver:\n  port: 8081\n");
+      file.forProfile("dev").set("server.port", "8082");
+      file.set("server.port", "80");
+      assertEquals("server:\n  port: 80\n---\nspring:\n  config:\n    activate:\n      on-profile: dev\n"
+               + "server:\n  port: 8082\n", file.getText());
+   }
+
+   @Test
+   public void removesFromTheDocumentOfTheProfileOnly()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("spring:\n  datasource:\n    url: a\nserver:\n  port: 1\n---\n"
+               + "spring:\n  profiles: dev\n  datasource:\n    url: b\n");
+      file.removeIf(key -> key.startsWith("spring.datasource."));
+      assertEquals("server:\n  port: 1\n---\nspring:\n  profiles: dev\n  datasource:\n    url: b\n",
+               file.getText());
+      file.forProfile("dev").removeIf(key -> key.startsWith("spring.datasource."));
+      assertEquals("server:\n  port: 1\n---\nspring:\n  profiles: dev\n", file.getText());
+   }
+
+   @Test
+   public void replacesValuesOfFlowMappings()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("server: {port: 8080, address: localhost}\n");
+      file.set("server.port", "9090");
+      assertEquals("server: {port: 9090, address: localhost}\n", file.getText());
+      assertEquals("localhost", file.get("server.address"));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void refusesToAddToFlowMappings()
+   {
+      YamlConfigFile.parse("server: {port: 8080}\n").set("server.servlet.context-path", "/api");
+   }
+
+   @Test
+   public void replacesBlockScalars()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("banner: |\n  first\n  second\nserver:\n  port: 8080\n");
+      assertEquals("first\nsecond\n", file.get("banner"));
+      file.set("banner", "none");
+      assertEquals("banner: none\nserver:\n  port: 8080\n", file.getText());
+
+      file = YamlConfigFile.parse("info:\n  text: >-\n    folded\n    lines\n  version: 1\n");
+      file.set("info.text", "short");
+      assertEquals("info:\n  text: short\n  version: 1\n", file.getText());
+   }
+
+   @Test
+   public void addsAfterBlockScalars()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("info:\n  text: |\n    line\n");
+      file.set("info.version", "1");
+      assertEquals("info:\n  text: |\n    line\n  version: 1\n", file.getText());
+   }
+
+   @Test
+   public void keepsTheLineSeparators()
+   {
+      YamlConfigFile file = YamlConfigFile.parse("server:\r\n  port: 8080\r\n");
+      file.set("server.address", "localhost");
+      assertEquals("server:\r\n  port: 8080\r\n  address: localhost\r\n", file.getText());
+   }
+
+   @Test
+   public void editsWithoutParsingAgainLikeAfterParsingAgain()
+   {
+      final String text = "banner: |\n  first\nkey:\nserver: {port: 8080}\nspring:\n  jpa:\n    show-sql: true\n"
+               + "  list:\n    - a\n# comment\ninfo:\n  text: >-\n    folded\n  version: \u00e9t\u00e9 \ud83d\ude00";
+      final String[][] edits = { { "banner", "none" }, { "key", "set" }, { "server.port", "9090" },
+               { "spring.jpa.show-sql", "false" }, { "spring.jpa.open-in-view", "a: b" }, { "spring.datasource.url", "x" },
+               { "info.text", "" }, { "info.version", "2" }, { "info.build.time", "now" }, { "management.port", "1" },
+               { "spring.datasource.username", "sa" }, { "banner", "multi\nline" }, { "key", "again" } };
+      final YamlConfigFile file = YamlConfigFile.parse(text);
+      String expected = text;
+      for (String[] edit : edits)
+      {
+         file.set(edit[0], edit[1]);
+         final YamlConfigFile reparsed = YamlConfigFile.parse(expected);
+         reparsed.set(edit[0], edit[1]);
+         expected = reparsed.getText();
+         assertEquals(expected, file.getText());
+         for (String[] other : edits)
+         {
+            assertEquals(YamlConfigFile.parse(expected).get(other[0]), file.get(other[0]));
+         }
+      }
+   }
+
+   @Test
+   public void quotesValuesThatArentPlainScalars()
+   {
+      assertEquals("plain", YamlConfigFile.formatScalar("plain"));
+      assertEquals("''", YamlConfigFile.formatScalar(""));
+      assertEquals("'a: b'", YamlConfigFile.formatScalar("a: b"));
+      assertEquals("'it''s #1'", YamlConfigFile.formatScalar("it's #1"));
+      assertEquals("'*'", YamlConfigFile.formatScalar("*"));
+      assertEquals("\"a\\nb\"", YamlConfigFile.formatScalar("a\nb"));
+
+      YamlConfigFile file = YamlConfigFile.parse("");
+      file.set("spring.jpa.hibernate.ddl-auto", "a: b");
+      assertTrue(file.isChanged());
+      assertEquals("a: b", YamlConfigFile.parse(file.getText()).get("spring.jpa.hibernate.ddl-auto"));
+   }
+}
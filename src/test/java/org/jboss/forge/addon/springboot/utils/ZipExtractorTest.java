@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.springboot.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ZipExtractorTest
+{
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void extractsInParallelTheSameTreeAsTheStreamingPath() throws IOException
+   {
+      final List<String> entries = new ArrayList<>();
+      entries.add("demo/");
+      entries.add(null);
+      entries.add("demo/pom.xml");
+      entries.add("<project/>");
+      // files without directory entries, and an empty one
+      for (int i = 0; i < 40; i++)
+      {
+         entries.add("demo/src/main/java/com/example/p" + (i % 5) + "/Class" + i + ".java");
+         entries.add(new String(new char[i * 100]).replace('\0', (char) ('a' + i % 26)));
+      }
+      entries.add("demo/src/main/resources/application.properties");
+      entries.add("");
+      entries.add("demo/src/main/resources/static/");
+      entries.add(null);
+      final byte[] archive = UnzipHelperTest.zip(entries.toArray(new String[entries.size()]));
+      final File zip = folder.newFile("demo.zip");
+      Files.write(zip.toPath(), archive);
+
+      final File streamed = folder.newFolder("streamed");
+      UnzipHelper.unzip(new ByteArrayInputStream(archive), streamed);
+      final File parallel = folder.newFolder("parallel");
+      assertEquals(42, ZipExtractor.extract(zip, parallel, 4));
+      final File sequential = folder.newFolder("sequential");
+      assertEquals(42, ZipExtractor.extract(zip, sequential, 1));
+
+      final Map<String, byte[]> expected = tree(streamed);
+      assertTreeEquals(expected, tree(parallel));
+      assertTreeEquals(expected, tree(sequential));
+   }
+
+   @Test
+   public void refusesArchivesEscapingTheTargetDirectory() throws IOException
+   {
+      final File zip = folder.newFile("evil.zip");
+      Files.write(zip.toPath(), UnzipHelperTest.zip("pom.xml", "<project/>", "../evil.sh", "rm -rf /"));
+      final File target = folder.newFolder("target");
+      try
+      {
+         ZipExtractor.extract(zip, target, 4);
+         fail("Extracted an entry outside of the target directory");
+      }
+      catch (IOException e)
+      {
+         // the entries are all checked before anything is written
+         assertFalse(new File(folder.getRoot(), "evil.sh").exists());
+         assertFalse(new File(target, "pom.xml").exists());
+      }
+   }
+
+   private static void assertTreeEquals(Map<String, byte[]> expected, Map<String, byte[]> actual)
+   {
+      assertEquals(expected.keySet(), actual.keySet());
+      for (Map.Entry<String, byte[]> entry : expected.entrySet())
+      {
+         assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+      }
+   }
+
+   /**
+    * Returns the content of the files under the given folder by relative path, the folders having no content.
+    */
+   private static Map<String, byte[]> tree(File root) throws IOException
+   {
+      final Map<String, byte[]> tree = new TreeMap<>();
+      try (Stream<Path> paths = Files.walk(root.toPath()))
+      {
+         for (Path path : (Iterable<Path>) paths::iterator)
+         {
+            final String name = root.toPath().relativize(path).toString().replace(File.separatorChar, '/');
+            tree.put(name, Files.isDirectory(path) ? new byte[0] : Files.readAllBytes(path));
+         }
+      }
+      return tree;
+   }
+}